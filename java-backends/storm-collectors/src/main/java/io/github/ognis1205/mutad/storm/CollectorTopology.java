@@ -21,11 +21,16 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.MissingOptionException;
 import org.apache.commons.cli.ParseException;
 import org.apache.storm.Config;
 import org.apache.storm.StormSubmitter;
 import org.apache.storm.topology.TopologyBuilder;
+import io.github.ognis1205.mutad.storm.queues.MpscArrayQueue;
 import io.github.ognis1205.mutad.storm.sinks.KafkaTweetSink;
+import io.github.ognis1205.mutad.storm.sources.HosebirdSource;
+import io.github.ognis1205.mutad.storm.sources.ReplaySource;
+import io.github.ognis1205.mutad.storm.sources.TweetSource;
 
 /**
  * @author Shingo OKAWA
@@ -36,30 +41,30 @@ public class CollectorTopology {
         Options options = new Options();
 
         Option apiKey = Option.builder("a")
-                .required(true)
+                .required(false)
                 .hasArg(true)
-                .desc("specifies HOSEbird API key")
+                .desc("specifies HOSEbird API key, required unless --replay-file is given")
                 .longOpt("hosebird-api-key")
                 .build();
 
         Option apiSecret = Option.builder("b")
-                .required(true)
+                .required(false)
                 .hasArg(true)
-                .desc("specifies HOSEbird API secret key")
+                .desc("specifies HOSEbird API secret key, required unless --replay-file is given")
                 .longOpt("hosebird-api-secret")
                 .build();
 
         Option tokenKey = Option.builder("c")
-                .required(true)
+                .required(false)
                 .hasArg(true)
-                .desc("specifies HOSEbird API token")
+                .desc("specifies HOSEbird API token, required unless --replay-file is given")
                 .longOpt("hosebird-token")
                 .build();
 
         Option tokenSecret = Option.builder("d")
-                .required(true)
+                .required(false)
                 .hasArg(true)
-                .desc("specifies HOSEbird API secret token")
+                .desc("specifies HOSEbird API secret token, required unless --replay-file is given")
                 .longOpt("hosebird-token-secret")
                 .build();
 
@@ -77,25 +82,121 @@ public class CollectorTopology {
                 .longOpt("kafka-topic")
                 .build();
 
+        Option replayBuffer = Option.builder("g")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies capacity of the replay buffer of reliable mode, defaults to 0, i.e., unreliable")
+                .longOpt("replay-buffer")
+                .build();
+
+        Option replayFile = Option.builder("h")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies NDJSON file of tweets to be replayed instead of the live stream")
+                .longOpt("replay-file")
+                .build();
+
+        Option replayRate = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies tweets per second of the replay, defaults to 0, i.e., as fast as possible")
+                .longOpt("replay-rate")
+                .build();
+
+        Option replayBurstFactor = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies positive factor of the replay rate during bursts, defaults to 1")
+                .longOpt("replay-burst-factor")
+                .build();
+
+        Option replayBurstPeriod = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies period of replay bursts in seconds, defaults to 0, i.e., no burst")
+                .longOpt("replay-burst-period")
+                .build();
+
+        Option replayBurstDuration = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies duration of a replay burst in seconds, defaults to 0")
+                .longOpt("replay-burst-duration")
+                .build();
+
+        Option replayLoop = Option.builder()
+                .required(false)
+                .hasArg(false)
+                .desc("replays the file over and over")
+                .longOpt("replay-loop")
+                .build();
+
+        Option queueCapacity = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies capacity of the handoff queue of the spout, defaults to " + HosebirdSpout.DEFAULT_QUEUE_CAPACITY)
+                .longOpt("queue-capacity")
+                .build();
+
+        Option queuePolicy = Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies behaviour on a full handoff queue, i.e., block or drop, defaults to block")
+                .longOpt("queue-policy")
+                .build();
+
         options.addOption(apiKey);
         options.addOption(apiSecret);
         options.addOption(tokenKey);
         options.addOption(tokenSecret);
         options.addOption(brokerList);
         options.addOption(kafkaTopic);
+        options.addOption(replayBuffer);
+        options.addOption(replayFile);
+        options.addOption(replayRate);
+        options.addOption(replayBurstFactor);
+        options.addOption(replayBurstPeriod);
+        options.addOption(replayBurstDuration);
+        options.addOption(replayLoop);
+        options.addOption(queueCapacity);
+        options.addOption(queuePolicy);
         CommandLineParser parser = new DefaultParser();
 
         try {
             CommandLine commandLine = parser.parse(options, args);
             TopologyBuilder builder = new TopologyBuilder();
+            int replayCapacity = Integer.parseInt(commandLine.getOptionValue("g", "0"));
+
+            TweetSource source;
+            if (commandLine.hasOption("h")) {
+                source = new ReplaySource(
+                        commandLine.getOptionValue("h"),
+                        Double.parseDouble(commandLine.getOptionValue("replay-rate", "0")),
+                        Double.parseDouble(commandLine.getOptionValue("replay-burst-factor", "1")),
+                        Integer.parseInt(commandLine.getOptionValue("replay-burst-period", "0")),
+                        Integer.parseInt(commandLine.getOptionValue("replay-burst-duration", "0")),
+                        commandLine.hasOption("replay-loop"));
+            } else {
+                for (String credential : new String[] {"a", "b", "c", "d"}) {
+                    if (!commandLine.hasOption(credential)) {
+                        throw new MissingOptionException("Missing required option: " + credential);
+                    }
+                }
+                source = new HosebirdSource(
+                        commandLine.getOptionValue("a"),
+                        commandLine.getOptionValue("b"),
+                        commandLine.getOptionValue("c"),
+                        commandLine.getOptionValue("d"));
+            }
 
             builder.setSpout(
                     "hosebird",
                     new HosebirdSpout(
-                            commandLine.getOptionValue("a"),
-                            commandLine.getOptionValue("b"),
-                            commandLine.getOptionValue("c"),
-                            commandLine.getOptionValue("d")),
+                            source,
+                            replayCapacity,
+                            Integer.parseInt(commandLine.getOptionValue(
+                                    "queue-capacity", String.valueOf(HosebirdSpout.DEFAULT_QUEUE_CAPACITY))),
+                            MpscArrayQueue.Policy.of(commandLine.getOptionValue("queue-policy", "block"))),
                     1);
 
             builder.setBolt(
@@ -108,6 +209,9 @@ public class CollectorTopology {
 
             Config conf = new Config();
             conf.setNumWorkers(1);
+            if (replayCapacity > 0) {
+                conf.setMaxSpoutPending(replayCapacity);
+            }
             conf.setDebug(false);
 
             StormSubmitter.submitTopology("collectors", conf, builder.createTopology());
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.queues;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue of multiple producers and a single consumer, backed by arrays preallocated
+ * on construction. Each slot carries a sequence number which tells producers whether it is free and
+ * the consumer whether it is published, so that neither side takes a lock. Blocking operations spin
+ * with short parks. When full, producers either wait or drop elements, as specified by `Policy`.
+ * The number of dropped elements and the high-water mark of the size are recorded as metrics.
+ * Only a single thread may consume the queue at a time, and the queue does not support iteration.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class MpscArrayQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+    /** Behaviours of blocking insertions on a full queue. */
+    public enum Policy {
+        /** Waits for a free slot, up to the timeout if any. */
+        BLOCK,
+        /** Drops a given element immediately, so that producers never stall. */
+        DROP;
+
+        /**
+         * Returns the policy of a given name.
+         * @param name the name on the command line, e.g., `drop`.
+         * @return the policy.
+         * @throws IllegalArgumentException if a given name is unknown.
+         */
+        public static Policy of(String name) {
+            for (Policy policy : Policy.values()) {
+                if (policy.name().equalsIgnoreCase(name)) return policy;
+            }
+            throw new IllegalArgumentException("unknown queue policy: " + name);
+        }
+    }
+
+    /** Nanoseconds to park between retries of blocking operations. */
+    private static final long PARK_NANOS = 50_000L;
+
+    /** Elements. */
+    private final AtomicReferenceArray<E> buffer;
+
+    /** Sequence numbers of the slots. */
+    private final AtomicLongArray sequences;
+
+    /** Mask to compute slots from positions, i.e., the capacity minus one. */
+    private final int mask;
+
+    /** Behaviour of blocking insertions on a full queue. */
+    private final Policy policy;
+
+    /** Position of the next insertion. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Position of the next removal. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Number of dropped elements. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Largest size observed since the last reset. */
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    /**
+     * Instanciate `MpscArrayQueue` instance.
+     * @param capacity the capacity, rounded up to a power of two of at least 2.
+     * @param policy the behaviour of blocking insertions on a full queue.
+     */
+    public MpscArrayQueue(int capacity, Policy policy) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+    }
+
+    /** Getter. */
+    public int capacity() {
+        return this.mask + 1;
+    }
+
+    /** Getter. */
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    /** Getter, returns the number of elements dropped so far. */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Returns the largest size observed since the last call, and resets it to the current size.
+     * @return the high-water mark.
+     */
+    public long highWaterMarkAndReset() {
+        return this.highWaterMark.getAndSet(this.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        while (true) {
+            final long t = this.tail.get();
+            final int slot = (int) t & this.mask;
+            final long diff = this.sequences.get(slot) - t;
+            if (diff == 0L) {
+                if (this.tail.compareAndSet(t, t + 1)) {
+                    this.buffer.lazySet(slot, e);
+                    this.sequences.lazySet(slot, t + 1);
+                    this.mark(t + 1 - this.head.get());
+                    return true;
+                }
+            } else if (diff < 0L) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Inserts a given element, waiting for a free slot up to a given timeout under `Policy.BLOCK`,
+     * or dropping it immediately if full under `Policy.DROP`.
+     */
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (this.offer(e)) return true;
+        if (this.policy == Policy.BLOCK) {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (System.nanoTime() < deadline) {
+                MpscArrayQueue.park();
+                if (this.offer(e)) return true;
+            }
+        }
+        this.dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Inserts a given element, waiting for a free slot under `Policy.BLOCK`, or dropping it
+     * immediately if full under `Policy.DROP`.
+     */
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!this.offer(e)) {
+            if (this.policy == Policy.DROP) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+            MpscArrayQueue.park();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E poll() {
+        final long h = this.head.get();
+        final int slot = (int) h & this.mask;
+        if (this.sequences.get(slot) != h + 1) {
+            return null;
+        }
+        final E e = this.buffer.get(slot);
+        this.buffer.lazySet(slot, null);
+        this.sequences.lazySet(slot, h + this.mask + 1);
+        this.head.lazySet(h + 1);
+        return e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = this.poll();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (e == null && System.nanoTime() < deadline) {
+            MpscArrayQueue.park();
+            e = this.poll();
+        }
+        return e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = this.poll()) == null) {
+            MpscArrayQueue.park();
+        }
+        return e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E peek() {
+        final long h = this.head.get();
+        final int slot = (int) h & this.mask;
+        return this.sequences.get(slot) == h + 1 ? this.buffer.get(slot) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        final long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0L, Math.min(size, this.mask + 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int remainingCapacity() {
+        return this.mask + 1 - this.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int n = 0;
+        E e;
+        while (n < maxElements && (e = this.poll()) != null) {
+            c.add(e);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Unsupported, since elements may be overwritten while iterating.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException("iteration is not supported");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "MpscArrayQueue[size=" + this.size() + ", capacity=" + this.capacity() + "]";
+    }
+
+    /**
+     * Raises the high-water mark to a given size if larger.
+     * @param size the observed size.
+     */
+    private void mark(long size) {
+        size = Math.min(size, this.mask + 1);
+        long current;
+        while (size > (current = this.highWaterMark.get())) {
+            if (this.highWaterMark.compareAndSet(current, size)) return;
+        }
+    }
+
+    /**
+     * Parks the current thread for a while, throwing if interrupted.
+     */
+    private static void park() throws InterruptedException {
+        LockSupport.parkNanos(MpscArrayQueue.PARK_NANOS);
+        if (Thread.interrupted()) throw new InterruptedException();
+    }
+}
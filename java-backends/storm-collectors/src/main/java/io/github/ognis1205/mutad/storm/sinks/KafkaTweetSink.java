@@ -17,17 +17,24 @@ package io.github.ognis1205.mutad.storm.sinks;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.kafka.clients.producer.*;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.storm.Config;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.topology.base.BaseRichBolt;
 import org.apache.storm.tuple.Tuple;
+import org.apache.storm.utils.TupleUtils;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
 /**
+ * Sink bolt which produces tweets to Kafka. A tuple is acked once its record is acknowledged by
+ * the brokers, and failed to be replayed from the spout otherwise. The producer callbacks queue
+ * the outcomes, which are settled on the executor thread, at the latest on the next tick tuple.
  * @author Shingo OKAWA
  * @version 1.0.0
  */
@@ -35,6 +42,24 @@ public class KafkaTweetSink extends BaseRichBolt {
     /** SL4J Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(KafkaTweetSink.class);
 
+    /** Frequency of tick tuples in seconds. */
+    private static final int TICK_FREQ_SECS = 1;
+
+    /** Outcome of a record. */
+    private static final class Outcome {
+        /** The tuple holding the tweet. */
+        private final Tuple tuple;
+
+        /** `true` if the record is acknowledged. */
+        private final boolean sent;
+
+        /** Constructor. */
+        Outcome(Tuple tuple, boolean sent) {
+            this.tuple = tuple;
+            this.sent = sent;
+        }
+    }
+
     /** `OutputCollector` instance to expose the API for emitting tuples. */
     OutputCollector collector;
 
@@ -47,6 +72,9 @@ public class KafkaTweetSink extends BaseRichBolt {
     /** Kafka producer/client. */
     private KafkaProducer<String, String> producer;
 
+    /** Outcomes to be settled on the executor thread. */
+    private transient Queue<Outcome> outcomes;
+
     /**
      * Initialize `TweetCollector` instance.
      * @param brokerList Kafka broker list in comma-separated format.
@@ -63,6 +91,7 @@ public class KafkaTweetSink extends BaseRichBolt {
     @Override
     public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
         this.collector = collector;
+        this.outcomes = new ConcurrentLinkedQueue<>();
         LOG.info("starting up producer to sink tweets to Kafka...");
         Properties properties = new Properties();
         properties.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,              this.brokerList                    );
@@ -84,16 +113,54 @@ public class KafkaTweetSink extends BaseRichBolt {
      */
     @Override
     public void execute(Tuple tuple) {
-        String tweet = tuple.getString(0);
-        LOG.trace(tweet);
-        this.producer.send(new ProducerRecord<String, String>(this.topic,null, tweet), new Callback() {
-            @Override
-            public void onCompletion(RecordMetadata recordMetadata, Exception e) {
-                if (e != null) {
-                    LOG.error("something bad happened", e);
+        if (!TupleUtils.isTick(tuple)) {
+            String tweet = tuple.getString(0);
+            LOG.trace(tweet);
+            this.producer.send(new ProducerRecord<String, String>(this.topic,null, tweet), new Callback() {
+                @Override
+                public void onCompletion(RecordMetadata recordMetadata, Exception e) {
+                    if (e != null) {
+                        LOG.error("something bad happened", e);
+                    }
+                    KafkaTweetSink.this.outcomes.add(new Outcome(tuple, e == null));
                 }
+            });
+        }
+        this.settle();
+    }
+
+    /**
+     * Acks or fails the tuples whose outcomes are known.
+     */
+    private void settle() {
+        Outcome outcome;
+        while ((outcome = this.outcomes.poll()) != null) {
+            if (outcome.sent) {
+                this.collector.ack(outcome.tuple);
+            } else {
+                this.collector.fail(outcome.tuple);
             }
-        });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        if (this.producer != null) {
+            this.producer.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        Config conf = new Config();
+        conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, KafkaTweetSink.TICK_FREQ_SECS);
+        return conf;
     }
 
     /**
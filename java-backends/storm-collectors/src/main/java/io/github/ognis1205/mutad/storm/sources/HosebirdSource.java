@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.sources;
+
+import java.util.concurrent.BlockingQueue;
+import com.twitter.hbc.ClientBuilder;
+import com.twitter.hbc.core.Client;
+import com.twitter.hbc.core.Constants;
+import com.twitter.hbc.core.HttpHosts;
+import com.twitter.hbc.core.endpoint.StatusesSampleEndpoint;
+import com.twitter.hbc.core.processor.StringDelimitedProcessor;
+import com.twitter.hbc.httpclient.auth.OAuth1;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Source of the live sample stream of Twitter, read by a Hosebird client.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class HosebirdSource implements TweetSource {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(HosebirdSource.class);
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** Twitter API key of the OAuth. */
+    private final String apiKey;
+
+    /** Twitter API secret key of the OAuth. */
+    private final String apiSecret;
+
+    /** Twitter token of the OAuth. */
+    private final String token;
+
+    /** Twitter secret token of the OAuth. */
+    private final String tokenSecret;
+
+    /** Twitter Http client. */
+    private transient Client client;
+
+    /**
+     * Initialize `HosebirdSource` instance.
+     * @param apiKey API key of the OAuth.
+     * @param apiSecret API secret key of the OAuth.
+     * @param token token of the OAuth.
+     * @param tokenSecret secret token of the OAuth.
+     */
+    public HosebirdSource(String apiKey, String apiSecret, String token, String tokenSecret) {
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.token = token;
+        this.tokenSecret = tokenSecret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open(BlockingQueue<String> queue) {
+        LOG.info("starting up client to collect tweets from Hosebird...");
+        ClientBuilder builder = new ClientBuilder()
+                .name("Tweet-Visualization-Hosebird-Client")
+                .hosts(new HttpHosts(Constants.STREAM_HOST))
+                .authentication(new OAuth1(this.apiKey, this.apiSecret, this.token, this.tokenSecret))
+                .endpoint(new StatusesSampleEndpoint())
+                .processor(new StringDelimitedProcessor(queue));
+        this.client = builder.build();
+        this.client.connect();
+        LOG.info("starting up client to collect tweets from Hosebird: done!");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        LOG.info("shutting down client from twitter...");
+        if (this.client != null) {
+            this.client.stop();
+        }
+        LOG.info("shutting down client from twitter: done!");
+    }
+}
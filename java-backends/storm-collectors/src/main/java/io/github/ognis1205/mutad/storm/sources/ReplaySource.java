@@ -0,0 +1,176 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.sources;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Logger;
+
+/**
+ * Source replaying the tweets of an NDJSON file, e.g., captured from the live stream, at a given rate,
+ * so that the topologies can be load tested without Twitter. The rate may be multiplied periodically
+ * to emulate bursts, and the file may be replayed over and over.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class ReplaySource implements TweetSource {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(ReplaySource.class);
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** Lag in nanoseconds beyond which the schedule is reset rather than caught up with. */
+    private static final long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    /** Path to the NDJSON file. */
+    private final String file;
+
+    /** Tweets per second, or non-positive to replay as fast as possible. */
+    private final double rate;
+
+    /** Factor of the rate during bursts. */
+    private final double burstFactor;
+
+    /** Period of bursts in seconds, or non-positive for no burst. */
+    private final int burstPeriodSecs;
+
+    /** Duration of a burst in seconds, at the beginning of each period. */
+    private final int burstSecs;
+
+    /** `true` to replay the file over and over. */
+    private final boolean loop;
+
+    /** Thread replaying the file. */
+    private transient Thread thread;
+
+    /**
+     * Initialize `ReplaySource` instance which replays at a constant rate.
+     * @param file the path to the NDJSON file.
+     * @param rate the tweets per second, non-positive to replay as fast as possible.
+     * @param loop `true` to replay the file over and over.
+     */
+    public ReplaySource(String file, double rate, boolean loop) {
+        this(file, rate, 1.0, 0, 0, loop);
+    }
+
+    /**
+     * Initialize `ReplaySource` instance.
+     * @param file the path to the NDJSON file.
+     * @param rate the tweets per second, non-positive to replay as fast as possible.
+     * @param burstFactor the positive factor of the rate during bursts.
+     * @param burstPeriodSecs the period of bursts in seconds, non-positive for no burst.
+     * @param burstSecs the duration of a burst in seconds, at the beginning of each period.
+     * @param loop `true` to replay the file over and over.
+     * @throws IllegalArgumentException if a given burst factor is not positive.
+     */
+    public ReplaySource(String file, double rate, double burstFactor, int burstPeriodSecs, int burstSecs, boolean loop) {
+        if (!(burstFactor > 0.0)) {
+            throw new IllegalArgumentException("burst factor must be positive: " + burstFactor);
+        }
+        this.file = file;
+        this.rate = rate;
+        this.burstFactor = burstFactor;
+        this.burstPeriodSecs = burstPeriodSecs;
+        this.burstSecs = burstSecs;
+        this.loop = loop;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open(BlockingQueue<String> queue) {
+        LOG.info("starting up replay of {}...", this.file);
+        this.thread = new Thread(() -> this.replay(queue), "tweet-replay");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (this.thread != null) {
+            this.thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the rate at a given time since the replay started.
+     * @param elapsedNanos the time since the replay started.
+     * @return the tweets per second.
+     */
+    double rateAt(long elapsedNanos) {
+        if (this.burstPeriodSecs > 0
+                && TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) % this.burstPeriodSecs < this.burstSecs) {
+            return this.rate * this.burstFactor;
+        }
+        return this.rate;
+    }
+
+    /**
+     * Replays the file into a given queue until interrupted, or until the end of the file unless looping.
+     * Looping stops if the file holds no tweet, so that an empty file is not read over and over.
+     * @param queue the queue to which tweets are delivered.
+     */
+    private void replay(BlockingQueue<String> queue) {
+        final long start = System.nanoTime();
+        long deadline = start;
+        try {
+            long replayed;
+            do {
+                replayed = 0L;
+                if (Thread.currentThread().isInterrupted()) return;
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(this.file), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (Thread.currentThread().isInterrupted()) return;
+                        if (line.isEmpty()) continue;
+                        if (this.rate > 0) {
+                            long now = System.nanoTime();
+                            deadline = now - deadline > ReplaySource.MAX_LAG_NANOS ? now : deadline;
+                            while (now < deadline) {
+                                LockSupport.parkNanos(deadline - now);
+                                if (Thread.interrupted()) return;
+                                now = System.nanoTime();
+                            }
+                            deadline += (long) (TimeUnit.SECONDS.toNanos(1L) / this.rateAt(deadline - start));
+                        }
+                        queue.put(line);
+                        replayed++;
+                    }
+                }
+            } while (this.loop && replayed > 0L);
+            if (replayed == 0L) {
+                LOG.warn("no tweet to replay in {}", this.file);
+            }
+            LOG.info("replay of {} done!", this.file);
+        } catch (InterruptedException e) {
+            // Closed.
+        } catch (IOException e) {
+            LOG.error("failed to replay " + this.file, e);
+        }
+    }
+}
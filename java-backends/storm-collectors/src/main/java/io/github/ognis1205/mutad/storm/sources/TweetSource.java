@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.sources;
+
+import java.io.Serializable;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Source of raw tweet JSON strings behind `HosebirdSpout`.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public interface TweetSource extends Serializable {
+    /**
+     * Starts delivering tweets to a given queue in the background.
+     * @param queue the queue to which tweets are delivered.
+     */
+    public void open(BlockingQueue<String> queue);
+
+    /**
+     * Stops delivering tweets.
+     */
+    public void close();
+}
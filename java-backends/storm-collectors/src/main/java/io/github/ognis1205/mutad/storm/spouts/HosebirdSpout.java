@@ -15,18 +15,9 @@
  */
 package io.github.ognis1205.mutad.storm.spouts;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import com.twitter.hbc.ClientBuilder;
-import com.twitter.hbc.core.Client;
-import com.twitter.hbc.core.Constants;
-import com.twitter.hbc.core.HttpHosts;
-import com.twitter.hbc.core.endpoint.StatusesSampleEndpoint;
-import com.twitter.hbc.core.event.Event;
-import com.twitter.hbc.core.processor.StringDelimitedProcessor;
-import com.twitter.hbc.httpclient.auth.OAuth1;
 import org.apache.storm.spout.SpoutOutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Fields;
@@ -35,8 +26,19 @@ import org.apache.storm.topology.OutputFieldsDeclarer;
 import org.apache.storm.topology.base.BaseRichSpout;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import io.github.ognis1205.mutad.storm.queues.MpscArrayQueue;
+import io.github.ognis1205.mutad.storm.sources.HosebirdSource;
+import io.github.ognis1205.mutad.storm.sources.TweetSource;
 
 /**
+ * Spout emitting the tweets delivered by a `TweetSource`, the live stream read by a Hosebird client
+ * by default. `nextTuple` never blocks; it returns
+ * without emitting when no tweet is available, so that Storm's wait strategy takes over. In the
+ * reliable mode, tweets are emitted with message ids and kept in a bounded replay ring until acked,
+ * and failed tweets are emitted again before new ones. Free slots of the ring are tracked on a stack,
+ * so that any free slot takes the next tweet and a slow tuple holds back no other. While the ring is
+ * full of pending tweets, new tweets are left in the handoff queue. The handoff queue is a preallocated lock-free ring, whose
+ * size, high-water mark and dropped tweets are reported as metrics.
  * @author Shingo OKAWA
  * @version 1.0.0
  */
@@ -44,30 +46,47 @@ public class HosebirdSpout extends BaseRichSpout {
     /** SL4J Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(HosebirdSpout.class);
 
+    /** Field name. */
+    public static final String FIELD = "tweets";
+
+    /** Default capacity of the handoff queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
     /** `OutputCollector` instance to expose the API for emitting tuples. */
     SpoutOutputCollector collector;
 
-    /** Blocking queue for storing tweet data. */
-    private BlockingQueue<String> que;
+    /** Handoff queue of tweets from the source. */
+    private transient MpscArrayQueue<String> que;
+
+    /** Capacity of the handoff queue. */
+    private final int queueCapacity;
+
+    /** Behaviour of the source on a full handoff queue. */
+    private final MpscArrayQueue.Policy queuePolicy;
+
+    /** Source of tweets. */
+    private final TweetSource source;
 
-    /** Twitter API key of the OAuth. */
-    private String apiKey;
+    /** Capacity of the replay ring, or `0` to emit tweets without message ids. */
+    private final int replayCapacity;
 
-    /** Twitter API secret key of the OAuth. */
-    private String apiSecret;
+    /** Pending tweets indexed by their message ids modulo the capacity. */
+    private transient String[] ring;
 
-    /** Twitter token of the OAuth. */
-    private String token;
+    /** Message ids of the pending tweets in `ring`, or `-1` if a slot is free. */
+    private transient long[] ringIds;
 
-    /** Twitter secret token of the OAuth. */
-    private String tokenSecret;
+    /** Stack of the free slots of `ring`. */
+    private transient int[] free;
 
-    /** Twitter Http client. */
-    private Client client;
+    /** Number of the free slots on `free`. */
+    private transient int freeCount;
 
-    BlockingQueue<String> msgQueue;
+    /** Message ids of the failed tweets to be replayed. */
+    private transient ArrayDeque<Long> failed;
 
-    BlockingQueue<Event> eventQueue;
+    /** Sequence number of the next new tweet, whose message id is the sequence times the capacity plus the slot. */
+    private transient long nextSeq;
 
     /**
      * Initialize `HosebirdSpout` instance.
@@ -77,11 +96,42 @@ public class HosebirdSpout extends BaseRichSpout {
      * @param tokenSecret secret token of the OAuth.
      */
     public HosebirdSpout(String apiKey, String apiSecret, String token, String tokenSecret) {
-        this.que = new LinkedBlockingQueue<String>(1000);
-        this.apiKey = apiKey;
-        this.apiSecret = apiSecret;
-        this.token = token;
-        this.tokenSecret = tokenSecret;
+        this(apiKey, apiSecret, token, tokenSecret, 0);
+    }
+
+    /**
+     * Initialize `HosebirdSpout` instance.
+     * @param apiKey API key of the OAuth.
+     * @param apiSecret API secret key of the OAuth.
+     * @param token token of the OAuth.
+     * @param tokenSecret secret token of the OAuth.
+     * @param replayCapacity the capacity of the replay ring, `0` to emit tweets without message ids.
+     */
+    public HosebirdSpout(String apiKey, String apiSecret, String token, String tokenSecret, int replayCapacity) {
+        this(new HosebirdSource(apiKey, apiSecret, token, tokenSecret), replayCapacity);
+    }
+
+    /**
+     * Initialize `HosebirdSpout` instance.
+     * @param source the source of tweets.
+     * @param replayCapacity the capacity of the replay ring, `0` to emit tweets without message ids.
+     */
+    public HosebirdSpout(TweetSource source, int replayCapacity) {
+        this(source, replayCapacity, HosebirdSpout.DEFAULT_QUEUE_CAPACITY, MpscArrayQueue.Policy.BLOCK);
+    }
+
+    /**
+     * Initialize `HosebirdSpout` instance.
+     * @param source the source of tweets.
+     * @param replayCapacity the capacity of the replay ring, `0` to emit tweets without message ids.
+     * @param queueCapacity the capacity of the handoff queue.
+     * @param queuePolicy the behaviour of the source on a full handoff queue.
+     */
+    public HosebirdSpout(TweetSource source, int replayCapacity, int queueCapacity, MpscArrayQueue.Policy queuePolicy) {
+        this.source = source;
+        this.replayCapacity = replayCapacity;
+        this.queueCapacity = queueCapacity;
+        this.queuePolicy = queuePolicy;
     }
 
     /**
@@ -90,16 +140,23 @@ public class HosebirdSpout extends BaseRichSpout {
     @Override
     public void open(Map conf, TopologyContext context, SpoutOutputCollector collector) {
         this.collector = collector;
-        LOG.info("starting up client to collect tweets from Hosebird...");
-        ClientBuilder builder = new ClientBuilder()
-                .name("Tweet-Visualization-Hosebird-Client")
-                .hosts(new HttpHosts(Constants.STREAM_HOST))
-                .authentication(new OAuth1(this.apiKey, this.apiSecret, this.token, this.tokenSecret))
-                .endpoint(new StatusesSampleEndpoint())
-                .processor(new StringDelimitedProcessor(this.que));
-        this.client = builder.build();
-        this.client.connect();
-        LOG.info("starting up client to collect tweets from Hosebird: done!");
+        if (this.replayCapacity > 0) {
+            this.ring = new String[this.replayCapacity];
+            this.ringIds = new long[this.replayCapacity];
+            Arrays.fill(this.ringIds, -1L);
+            this.free = new int[this.replayCapacity];
+            for (int i = 0; i < this.replayCapacity; i++) {
+                this.free[i] = this.replayCapacity - 1 - i;
+            }
+            this.freeCount = this.replayCapacity;
+            this.failed = new ArrayDeque<>();
+            this.nextSeq = 0L;
+        }
+        this.que = new MpscArrayQueue<>(this.queueCapacity, this.queuePolicy);
+        context.registerGauge("handoff-size",            this.que::size);
+        context.registerGauge("handoff-high-water-mark", this.que::highWaterMarkAndReset);
+        context.registerGauge("handoff-dropped",         this.que::getDropped);
+        this.source.open(this.que);
     }
 
     /**
@@ -107,9 +164,7 @@ public class HosebirdSpout extends BaseRichSpout {
      */
     @Override
     public void close() {
-        LOG.info("shutting down client from twitter...");
-        this.client.stop();
-        LOG.info("shutting down client from twitter: done!");
+        this.source.close();
     }
 
     /**
@@ -117,22 +172,58 @@ public class HosebirdSpout extends BaseRichSpout {
      */
     @Override
     public void nextTuple() {
-        String tweet = null;
-        try {
-            tweet = this.que.poll(5, TimeUnit.SECONDS);
+        if (this.replayCapacity <= 0) {
+            String tweet = this.que.poll();
+            if (tweet != null) {
+                LOG.trace(tweet);
+                this.collector.emit(new Values(tweet));
+            }
+            return;
+        }
+        Long failedId = this.failed.poll();
+        if (failedId != null) {
+            int slot = this.slot(failedId);
+            if (this.ringIds[slot] == failedId) {
+                this.collector.emit(new Values(this.ring[slot]), failedId);
+            }
+            return;
+        }
+        if (this.freeCount == 0) {
+            return;
+        }
+        String tweet = this.que.poll();
+        if (tweet != null) {
             LOG.trace(tweet);
-            this.collector.emit(new Values(tweet));
-        } catch (InterruptedException e) {
-            LOG.error(e.getMessage());
+            int slot = this.free[--this.freeCount];
+            long msgId = this.nextSeq++ * this.replayCapacity + slot;
+            this.ring[slot] = tweet;
+            this.ringIds[slot] = msgId;
+            this.collector.emit(new Values(tweet), msgId);
         }
     }
 
+    /**
+     * Returns the slot of the replay ring for a given message id.
+     * @param msgId the message id.
+     * @return the slot.
+     */
+    private int slot(long msgId) {
+        return (int) (msgId % this.replayCapacity);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void ack(Object msgId) {
-        // Do nothing.
+        if (msgId instanceof Long) {
+            int slot = this.slot((Long) msgId);
+            if (this.ringIds[slot] == (Long) msgId) {
+                this.ring[slot] = null;
+                this.ringIds[slot] = -1L;
+                this.free[this.freeCount++] = slot;
+            }
+        }
     }
 
     /**
@@ -140,7 +231,14 @@ public class HosebirdSpout extends BaseRichSpout {
      */
     @Override
     public void fail(Object msgId) {
-        // Do nothing.
+        if (msgId instanceof Long) {
+            int slot = this.slot((Long) msgId);
+            if (this.ringIds[slot] == (Long) msgId) {
+                this.failed.add((Long) msgId);
+            } else {
+                LOG.warn("failed tweet {} is no longer in the replay ring", msgId);
+            }
+        }
     }
 
     /**
@@ -148,6 +246,6 @@ public class HosebirdSpout extends BaseRichSpout {
      */
     @Override
     public void declareOutputFields(OutputFieldsDeclarer declarer) {
-        declarer.declare(new Fields("tweets"));
+        declarer.declare(new Fields(FIELD));
     }
 }
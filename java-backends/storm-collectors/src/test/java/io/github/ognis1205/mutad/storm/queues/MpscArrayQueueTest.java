@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.queues;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Stresses `MpscArrayQueue` with several producers and a single consumer. Each producer puts the
+ * integers `producer * ITEMS + i`, so that the consumer can tell losses, duplicates and reorderings.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class MpscArrayQueueTest {
+    private static final int PRODUCERS = 4;
+
+    private static final int ITEMS = 200_000;
+
+    private static final int CAPACITY = 64;
+
+    private static final long TIMEOUT_SECS = 30L;
+
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    private List<Thread> produce(MpscArrayQueue<Integer> queue, CountDownLatch start) {
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int base = p * ITEMS;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ITEMS; i++) {
+                        queue.put(base + i);
+                    }
+                } catch (Throwable t) {
+                    this.error.compareAndSet(null, t);
+                }
+            }, "producer-" + p);
+            producer.setDaemon(true);
+            producer.start();
+            producers.add(producer);
+        }
+        return producers;
+    }
+
+    private void join(List<Thread> producers) throws InterruptedException {
+        for (Thread producer : producers) {
+            producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECS));
+            assertFalse(producer.isAlive(), producer.getName() + " did not finish");
+        }
+        assertNull(this.error.get());
+    }
+
+    @Test
+    void testCapacity() {
+        assertEquals(2, new MpscArrayQueue<Integer>(1, MpscArrayQueue.Policy.BLOCK).capacity());
+        assertEquals(2, new MpscArrayQueue<Integer>(2, MpscArrayQueue.Policy.BLOCK).capacity());
+        assertEquals(4, new MpscArrayQueue<Integer>(3, MpscArrayQueue.Policy.BLOCK).capacity());
+        assertEquals(1024, new MpscArrayQueue<Integer>(1024, MpscArrayQueue.Policy.BLOCK).capacity());
+        assertEquals(2048, new MpscArrayQueue<Integer>(1025, MpscArrayQueue.Policy.BLOCK).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscArrayQueue<Integer>(0, MpscArrayQueue.Policy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new MpscArrayQueue<Integer>((1 << 30) + 1, MpscArrayQueue.Policy.BLOCK));
+        assertEquals(MpscArrayQueue.Policy.DROP, MpscArrayQueue.Policy.of("drop"));
+        assertThrows(IllegalArgumentException.class, () -> MpscArrayQueue.Policy.of("spill"));
+    }
+
+    @Test
+    void testBlockNeitherLosesNorDuplicates() throws InterruptedException {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(CAPACITY, MpscArrayQueue.Policy.BLOCK);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = this.produce(queue, start);
+        start.countDown();
+        BitSet seen = new BitSet(PRODUCERS * ITEMS);
+        int[] next = new int[PRODUCERS];
+        for (int n = 0; n < PRODUCERS * ITEMS; n++) {
+            Integer e = queue.poll(TIMEOUT_SECS, TimeUnit.SECONDS);
+            if (e == null) fail("lost elements after receiving " + n);
+            assertFalse(seen.get(e), "duplicated element " + e);
+            seen.set(e);
+            assertEquals(next[e / ITEMS]++, e % ITEMS, "reordered element of producer " + e / ITEMS);
+        }
+        this.join(producers);
+        assertEquals(PRODUCERS * ITEMS, seen.cardinality());
+        assertNull(queue.poll());
+        assertEquals(0L, queue.getDropped());
+        assertTrue(queue.highWaterMarkAndReset() <= CAPACITY);
+    }
+
+    @Test
+    void testDropCountsEveryRejectedElement() throws InterruptedException {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(CAPACITY, MpscArrayQueue.Policy.DROP);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = this.produce(queue, start);
+        start.countDown();
+        BitSet seen = new BitSet(PRODUCERS * ITEMS);
+        int received = 0;
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            Integer e = queue.poll();
+            if (e == null) continue;
+            assertFalse(seen.get(e), "duplicated element " + e);
+            seen.set(e);
+            received++;
+        }
+        this.join(producers);
+        for (Integer e; (e = queue.poll()) != null; received++) {
+            assertFalse(seen.get(e), "duplicated element " + e);
+            seen.set(e);
+        }
+        assertEquals((long) PRODUCERS * ITEMS, received + queue.getDropped());
+        assertTrue(queue.highWaterMarkAndReset() <= CAPACITY);
+    }
+
+    @Test
+    void testDropWhenFull() throws InterruptedException {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(CAPACITY, MpscArrayQueue.Policy.DROP);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = this.produce(queue, start);
+        start.countDown();
+        this.join(producers);
+        assertEquals(CAPACITY, queue.size());
+        assertEquals((long) PRODUCERS * ITEMS - CAPACITY, queue.getDropped());
+        assertEquals(CAPACITY, queue.highWaterMarkAndReset());
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(CAPACITY, queue.drainTo(drained));
+        assertEquals(CAPACITY, drained.stream().distinct().count());
+        assertEquals(CAPACITY, queue.highWaterMarkAndReset());
+        assertEquals(0L, queue.highWaterMarkAndReset());
+    }
+
+    @Test
+    void testBlockTimesOutWhenFull() throws InterruptedException {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(2, MpscArrayQueue.Policy.BLOCK);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertFalse(queue.offer(3, 10L, TimeUnit.MILLISECONDS));
+        assertEquals(1L, queue.getDropped());
+        assertNotNull(queue.poll());
+        assertTrue(queue.offer(3, 10L, TimeUnit.MILLISECONDS));
+        assertEquals(Integer.valueOf(2), queue.poll());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertNull(queue.poll(10L, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.groupings;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.storm.Config;
+import org.apache.storm.LocalCluster;
+import org.apache.storm.spout.SpoutOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.BasicOutputCollector;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.TopologyBuilder;
+import org.apache.storm.topology.base.BaseBasicBolt;
+import org.apache.storm.topology.base.BaseRichSpout;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.ognis1205.mutad.storm.KafkaTweetSpoutBuilder;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.bolts.JsonEncodeBolt;
+import io.github.ognis1205.mutad.storm.bolts.TweetCleanBolt;
+import io.github.ognis1205.mutad.storm.serializers.GeoSerializer;
+import io.github.ognis1205.mutad.storm.serializers.LonLatSerializer;
+import io.github.ognis1205.mutad.storm.serializers.TweetSerializer;
+
+/**
+ * Compares the end-to-end throughput of the topology, from a spout replaying `tweets.ndjson` through
+ * the clean and encode bolts to a counting sink, over the groupings of `Grouping`. The topology runs
+ * on a two-worker `LocalCluster`, so that local-or-shuffle groupings actually save hops. Each
+ * invocation waits for `TUPLES` more documents to reach the sink, so the score is the time per document.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GroupingBenchmark {
+    /** Documents to reach the sink per invocation. */
+    private static final int TUPLES = 20000;
+
+    /** Documents reached the sink so far, shared by the in-process workers. */
+    private static final AtomicLong SUNK = new AtomicLong();
+
+    /** Spout emitting the sample payloads round and round as raw UTF-8 bytes. */
+    public static class ReplaySpout extends BaseRichSpout {
+        /** `SpoutOutputCollector` instance to expose the API for emitting tuples. */
+        private SpoutOutputCollector collector;
+
+        /** Sample payloads. */
+        private List<byte[]> payloads;
+
+        /** Index of the next payload. */
+        private long next;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void open(Map<String, Object> conf, TopologyContext context, SpoutOutputCollector collector) {
+            this.collector = collector;
+            this.payloads = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    GroupingBenchmark.class.getResourceAsStream("/tweets.ndjson"), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) this.payloads.add(line.getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to read tweets.ndjson", e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void nextTuple() {
+            byte[] payload = this.payloads.get((int) (this.next % this.payloads.size()));
+            this.collector.emit(new Values(payload), this.next++);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void declareOutputFields(OutputFieldsDeclarer declarer) {
+            declarer.declare(new Fields(KafkaTweetSpoutBuilder.FIELD));
+        }
+    }
+
+    /** Sink counting the documents it receives. */
+    public static class CountBolt extends BaseBasicBolt {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void execute(Tuple tuple, BasicOutputCollector collector) {
+            GroupingBenchmark.SUNK.incrementAndGet();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void declareOutputFields(OutputFieldsDeclarer declarer) {
+            // Do nothing.
+        }
+    }
+
+    /** Grouping of every bolt input. */
+    @Param({"shuffle", "local-or-shuffle", "user"})
+    public String grouping;
+
+    /** Local cluster running the topology. */
+    private LocalCluster cluster;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Grouping grouping = Grouping.of(this.grouping);
+
+        TopologyBuilder builder = new TopologyBuilder();
+        builder.setSpout("replay", new ReplaySpout(), 2);
+        grouping.apply(
+                builder.setBolt("clean", new TweetCleanBolt(new String[0]), 2),
+                "replay",
+                Utils.DEFAULT_STREAM_ID);
+        grouping.apply(
+                grouping.apply(builder.setBolt("encode", new JsonEncodeBolt(), 2), "clean", TweetCleanBolt.TWEET_STREAM),
+                "clean",
+                TweetCleanBolt.GEO_STREAM);
+        grouping.apply(
+                grouping.apply(builder.setBolt("sink", new CountBolt(), 2), "encode", TweetCleanBolt.TWEET_STREAM),
+                "encode",
+                TweetCleanBolt.GEO_STREAM);
+
+        Config conf = new Config();
+        conf.registerSerialization(Geo.class, GeoSerializer.class);
+        conf.registerSerialization(LonLat.class, LonLatSerializer.class);
+        conf.registerSerialization(Tweet.class, TweetSerializer.class);
+        conf.setNumWorkers(2);
+        conf.setMaxSpoutPending(1000);
+
+        this.cluster = new LocalCluster();
+        this.cluster.submitTopology("grouping-" + this.grouping, conf, builder.createTopology());
+        GroupingBenchmark.await(GroupingBenchmark.TUPLES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.cluster.close();
+    }
+
+    /**
+     * Waits for a given number of documents more to reach the sink.
+     * @param tuples the number of documents.
+     * @return the number of documents reached the sink so far.
+     */
+    private static long await(long tuples) throws InterruptedException {
+        final long target = GroupingBenchmark.SUNK.get() + tuples;
+        while (GroupingBenchmark.SUNK.get() < target) {
+            Thread.sleep(1L);
+        }
+        return GroupingBenchmark.SUNK.get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GroupingBenchmark.TUPLES)
+    public long endToEnd() throws InterruptedException {
+        return GroupingBenchmark.await(GroupingBenchmark.TUPLES);
+    }
+}
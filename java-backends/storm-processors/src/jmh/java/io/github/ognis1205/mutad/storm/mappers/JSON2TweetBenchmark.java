@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.mappers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.utils.TweetPreFilter;
+
+/**
+ * Compares the streaming `JSON2Tweet` mapper against mapping through an `org.json` tree,
+ * and the `TweetPreFilter` peek run before them, over the sample payloads in `tweets.ndjson`.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSON2TweetBenchmark {
+    /** Sample payloads. */
+    private String[] payloads;
+
+    /** Sample payloads encoded in UTF-8. */
+    private byte[][] bytes;
+
+    /** Pre-filter accepting English tweets. */
+    private final TweetPreFilter filter = new TweetPreFilter("en");
+
+    /** Index of the next payload. */
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                JSON2TweetBenchmark.class.getResourceAsStream("/tweets.ndjson"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) lines.add(line);
+            }
+        }
+        this.payloads = lines.toArray(new String[0]);
+        this.bytes = new byte[this.payloads.length][];
+        for (int i = 0; i < this.payloads.length; i++) {
+            this.bytes[i] = this.payloads[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the index of the next payload.
+     */
+    private int next() {
+        this.next = this.next + 1 == this.payloads.length ? 0 : this.next + 1;
+        return this.next;
+    }
+
+    @Benchmark
+    public Tweet streaming() {
+        return JSON2Tweet.map(this.payloads[this.next()]);
+    }
+
+    @Benchmark
+    public Tweet streamingBytes() {
+        return JSON2Tweet.map(this.bytes[this.next()]);
+    }
+
+    @Benchmark
+    public Tweet tree() {
+        return JSON2Tweet.map(new JSONObject(this.payloads[this.next()]));
+    }
+
+    @Benchmark
+    public boolean preFilter() {
+        return this.filter.test(this.payloads[this.next()]);
+    }
+
+    @Benchmark
+    public boolean preFilterBytes() {
+        return this.filter.test(this.bytes[this.next()]);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.mappers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+
+/**
+ * Compares encoding tweets into UTF-8 JSON with `JSONBytes` against building a `JSONObject`
+ * with `Tweet2JSON.map` and rendering it, over the sample payloads in `tweets.ndjson`.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Tweet2JSONBenchmark {
+    /** Sample tweets. */
+    private Tweet[] tweets;
+
+    /** Encoder with a reused buffer. */
+    private final JSONBytes bytes = new JSONBytes();
+
+    /** Index of the next tweet. */
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Tweet> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Tweet2JSONBenchmark.class.getResourceAsStream("/tweets.ndjson"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) samples.add(JSON2Tweet.map(line));
+            }
+        }
+        this.tweets = samples.toArray(new Tweet[0]);
+    }
+
+    /**
+     * Returns the next tweet.
+     */
+    private Tweet next() {
+        this.next = this.next + 1 == this.tweets.length ? 0 : this.next + 1;
+        return this.tweets[this.next];
+    }
+
+    @Benchmark
+    public byte[] bytes() {
+        return this.bytes.map(this.next());
+    }
+
+    @Benchmark
+    public byte[] tree() {
+        return Tweet2JSON.map(this.next()).toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
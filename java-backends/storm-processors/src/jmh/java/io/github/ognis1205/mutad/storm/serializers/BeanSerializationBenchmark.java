@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.mappers.JSON2Tweet;
+import io.github.ognis1205.mutad.storm.mappers.Tweet2JSON;
+
+/**
+ * Compares Kryo round trips of `Tweet` with the hand-written serializers against the default
+ * `FieldSerializer`, and against the `JSONObject` tuples emitted formerly. The average serialized
+ * size of the samples is reported as the `bytesPerTweet` secondary result of each benchmark.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanSerializationBenchmark {
+    /** Serialized sizes, reported along with the round trip times. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Sizes {
+        /** Average serialized bytes of a sample, in the form of the benchmark. */
+        public long bytesPerTweet;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytesPerTweet = 0L;
+        }
+    }
+
+    /** Kryo registered with the hand-written serializers. */
+    private Kryo custom;
+
+    /** Kryo registered with the default serializers. */
+    private Kryo field;
+
+    /** Sample tweets. */
+    private Tweet[] tweets;
+
+    /** Sample tweets mapped to `JSONObject`. */
+    private JSONObject[] jsons;
+
+    /** Reused output buffer. */
+    private final Output output = new Output(4096, -1);
+
+    /** Reused input buffer. */
+    private final Input input = new Input();
+
+    /** Index of the next sample. */
+    private int next;
+
+    /** Average serialized bytes of a sample with the hand-written serializers. */
+    private long customSize;
+
+    /** Average serialized bytes of a sample with the default serializers. */
+    private long fieldSize;
+
+    /** Average serialized bytes of a sample mapped to `JSONObject`. */
+    private long jsonSize;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Tweet> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BeanSerializationBenchmark.class.getResourceAsStream("/tweets.ndjson"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) samples.add(JSON2Tweet.map(line));
+            }
+        }
+        this.tweets = samples.toArray(new Tweet[0]);
+        this.jsons = new JSONObject[this.tweets.length];
+        for (int i = 0; i < this.tweets.length; i++) {
+            this.jsons[i] = Tweet2JSON.map(this.tweets[i]);
+        }
+
+        this.custom = new Kryo();
+        this.custom.register(Geo.class, new GeoSerializer());
+        this.custom.register(LonLat.class, new LonLatSerializer());
+        this.custom.register(Tweet.class, new TweetSerializer());
+        this.field = new Kryo();
+        this.field.register(Geo.class);
+        this.field.register(LonLat.class);
+        this.field.register(Tweet.class);
+        this.field.register(JSONObject.class);
+
+        for (int i = 0; i < this.tweets.length; i++) {
+            this.customSize += this.write(this.custom, this.tweets[i]);
+            this.fieldSize += this.write(this.field, this.tweets[i]);
+            this.jsonSize += this.write(this.field, this.jsons[i]);
+        }
+        this.customSize /= this.tweets.length;
+        this.fieldSize /= this.tweets.length;
+        this.jsonSize /= this.tweets.length;
+    }
+
+    /**
+     * Returns the index of the next sample.
+     */
+    private int next() {
+        this.next = this.next + 1 == this.tweets.length ? 0 : this.next + 1;
+        return this.next;
+    }
+
+    /**
+     * Writes a given object into the output buffer.
+     * @return the number of bytes written.
+     */
+    private int write(Kryo kryo, Object object) {
+        this.output.clear();
+        kryo.writeObject(this.output, object);
+        return this.output.position();
+    }
+
+    /**
+     * Writes a given object, then reads it back.
+     * @return the object read.
+     */
+    private <T> T roundTrip(Kryo kryo, T object, Class<T> type) {
+        final int size = this.write(kryo, object);
+        this.input.setBuffer(this.output.getBuffer(), 0, size);
+        return kryo.readObject(this.input, type);
+    }
+
+    @Benchmark
+    public Tweet custom(Sizes sizes) {
+        sizes.bytesPerTweet = this.customSize;
+        return this.roundTrip(this.custom, this.tweets[this.next()], Tweet.class);
+    }
+
+    @Benchmark
+    public Tweet field(Sizes sizes) {
+        sizes.bytesPerTweet = this.fieldSize;
+        return this.roundTrip(this.field, this.tweets[this.next()], Tweet.class);
+    }
+
+    @Benchmark
+    public JSONObject jsonObject(Sizes sizes) {
+        sizes.bytesPerTweet = this.jsonSize;
+        return this.roundTrip(this.field, this.jsons[this.next()], JSONObject.class);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.utils;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the single pass `Texts.clean` against chaining `Texts.removeUrl` and `Texts.removeEmoji`
+ * over tweet length texts.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextsBenchmark {
+    /** Sample texts. */
+    private static final String[] TEXTS = {
+        "Morning run along the river before work, legs are still sore from yesterday but the view was worth it",
+        "New blog post on tuning the JVM for stream processing https://example.com/posts/jvm-tuning?ref=tw #java",
+        "Finally home 🏠✨ what a week 😅😅 see you all on Monday 👋🏽",
+        "RT @someone: Live from the stadium ⚽️🔥 https://t.co/AbCdEf1234 https://t.co/ZyXwVu9876",
+        "東京は今日も暑いです。コーヒー飲みに行きます ☕",
+        "Family trip 👨‍👩‍👧 to Lisbon 🇵🇹 photos here http://example.org/album/42"
+    };
+
+    /** Index of the next text. */
+    private int next;
+
+    /**
+     * Returns the next text.
+     */
+    private String next() {
+        this.next = this.next + 1 == TextsBenchmark.TEXTS.length ? 0 : this.next + 1;
+        return TextsBenchmark.TEXTS[this.next];
+    }
+
+    @Benchmark
+    public String clean() {
+        return Texts.clean(this.next());
+    }
+
+    @Benchmark
+    public String removeUrlAndEmoji() {
+        return Texts.removeEmoji(Texts.removeUrl(this.next()));
+    }
+}
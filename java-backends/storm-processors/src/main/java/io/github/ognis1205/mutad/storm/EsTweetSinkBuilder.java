@@ -17,28 +17,193 @@ package io.github.ognis1205.mutad.storm;
 
 import java.util.Map;
 import java.util.HashMap;
+import org.apache.storm.Config;
 import org.elasticsearch.storm.EsBolt;
+import io.github.ognis1205.mutad.storm.bolts.EsBulkBolt;
 
 /**
  * @author Shingo OKAWA
  * @version 1.0.0
  */
 public class EsTweetSinkBuilder {
+    /** `EsBolt` which requests tick tuples at a given interval to flush bulk requests. */
+    private static class TimedEsBolt extends EsBolt {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Interval in seconds of tick tuples. */
+        private final int flushIntervalSecs;
+
+        /** Constructor. */
+        TimedEsBolt(String indexType, Map<String, Object> conf, int flushIntervalSecs) {
+            super(indexType, conf);
+            this.flushIntervalSecs = flushIntervalSecs;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map<String, Object> getComponentConfiguration() {
+            Map<String, Object> conf = new HashMap<>();
+            if (super.getComponentConfiguration() != null) {
+                conf.putAll(super.getComponentConfiguration());
+            }
+            conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, this.flushIntervalSecs);
+            return conf;
+        }
+    }
+
+    /** Comma-separated Elasticsearch nodes. */
+    private final String esNodes;
+
+    /** index/type string. */
+    private final String indexType;
+
+    /** Maximum number of documents in a bulk request. */
+    private int batchSizeEntries = 100;
+
+    /** Maximum size of a bulk request, e.g., `1mb`. */
+    private String batchSizeBytes = "1mb";
+
+    /** Interval in seconds at which bulk requests are flushed, or `0` to flush only full bulks. */
+    private int flushIntervalSecs = 0;
+
+    /** `true` to ack tuples once indexed. */
+    private boolean ack = false;
+
+    /** Number of retries of a rejected bulk request, or negative to retry forever. */
+    private int retryCount = 3;
+
+    /** Wait between retries of a rejected bulk request, e.g., `10s`. */
+    private String retryWait = "10s";
+
+    /** Maximum number of bulk requests in flight, only for `EsBulkBolt`. */
+    private int concurrentRequests = 1;
+
+    /** Top-level field holding the document id, or `null` to let Elasticsearch generate ids. */
+    private String idField = null;
+
+    /** Constructor. */
+    private EsTweetSinkBuilder(String esNodes, String indexType) {
+        this.esNodes = esNodes;
+        this.indexType = indexType;
+    }
+
+    /**
+     * Instanciate `EsTweetSinkBuilder` instance.
+     *
+     * @param esNodes   Comma-separated Elasticsearch nodes.
+     * @param indexType index/type string.
+     */
+    public static EsTweetSinkBuilder builder(String esNodes, String indexType) {
+        return new EsTweetSinkBuilder(esNodes, indexType);
+    }
+
     /**
-     * Instanciate `EsBolt` instance.
+     * Instanciate `EsBolt` instance which flushes bulk requests of 100 documents.
      *
      * @param esNodes   Comma-separated Elasticsearch nodes.
      * @param indexType index/type string.
      */
     public static EsBolt build(String esNodes, String indexType) {
+        return EsTweetSinkBuilder.builder(esNodes, indexType).build();
+    }
+
+    /** Sets the maximum number of documents in a bulk request, `es.batch.size.entries`. */
+    public EsTweetSinkBuilder batchSizeEntries(int batchSizeEntries) {
+        this.batchSizeEntries = batchSizeEntries;
+        return this;
+    }
+
+    /** Sets the maximum size of a bulk request, e.g., `1mb`, `es.batch.size.bytes`. */
+    public EsTweetSinkBuilder batchSizeBytes(String batchSizeBytes) {
+        this.batchSizeBytes = batchSizeBytes;
+        return this;
+    }
+
+    /** Sets the interval in seconds at which bulk requests are flushed on tick tuples, `0` to disable. */
+    public EsTweetSinkBuilder flushIntervalSecs(int flushIntervalSecs) {
+        this.flushIntervalSecs = flushIntervalSecs;
+        return this;
+    }
+
+    /** Sets whether tuples are acked once indexed and failed if indexing fails, `es.storm.bolt.ack`. */
+    public EsTweetSinkBuilder ack(boolean ack) {
+        this.ack = ack;
+        return this;
+    }
+
+    /** Sets the number of retries of a rejected bulk request, `es.batch.write.retry.count`. */
+    public EsTweetSinkBuilder retryCount(int retryCount) {
+        this.retryCount = retryCount;
+        return this;
+    }
+
+    /** Sets the wait between retries of a rejected bulk request, e.g., `10s`, `es.batch.write.retry.wait`. */
+    public EsTweetSinkBuilder retryWait(String retryWait) {
+        this.retryWait = retryWait;
+        return this;
+    }
+
+    /** Sets the maximum number of bulk requests in flight, only for `EsBulkBolt`. */
+    public EsTweetSinkBuilder concurrentRequests(int concurrentRequests) {
+        this.concurrentRequests = concurrentRequests;
+        return this;
+    }
+
+    /**
+     * Sets the top-level field holding the document id, `es.mapping.id`. Documents are then
+     * created rather than indexed and version conflicts are ignored, so replayed tuples cost no
+     * extra writes.
+     */
+    public EsTweetSinkBuilder idField(String idField) {
+        this.idField = idField;
+        return this;
+    }
+
+    /**
+     * Instanciate `EsBolt` instance. Acking bolts flush at least every second, so that tuples of
+     * low traffic streams never time out in a partial bulk.
+     */
+    public EsBolt build() {
+        final int interval = this.ack && this.flushIntervalSecs <= 0 ? 1 : this.flushIntervalSecs;
         Map<String, Object> conf = new HashMap<>();
-        conf.put("es.nodes",                       esNodes);
-        conf.put("es.nodes.wan.only",              "true" );
-        conf.put("es.input.json",                  "true" );
-        conf.put("es.storm.bolt.tick.tuple.flush", "false");
-        conf.put("es.batch.size.entries",          "100"  );
-        return new EsBolt(indexType, conf);
+        conf.put("es.nodes",                       this.esNodes                         );
+        conf.put("es.nodes.wan.only",              "true"                               );
+        conf.put("es.input.json",                  "true"                               );
+        conf.put("es.storm.bolt.ack",              String.valueOf(this.ack)             );
+        conf.put("es.storm.bolt.tick.tuple.flush", String.valueOf(interval > 0)         );
+        conf.put("es.batch.size.entries",          String.valueOf(this.batchSizeEntries));
+        conf.put("es.batch.size.bytes",            this.batchSizeBytes                  );
+        conf.put("es.batch.write.retry.count",     String.valueOf(this.retryCount)      );
+        conf.put("es.batch.write.retry.wait",      this.retryWait                       );
+        if (this.idField != null) {
+            conf.put("es.mapping.id",                              this.idField                               );
+            conf.put("es.write.operation",                         "create"                                   );
+            conf.put("es.write.rest.error.handlers",               "ignoreConflict"                           );
+            conf.put("es.write.rest.error.handler.ignoreConflict", IgnoreConflictHandler.class.getName());
+        }
+        if (interval > 0) {
+            return new TimedEsBolt(this.indexType, conf, interval);
+        }
+        return new EsBolt(this.indexType, conf);
     }
 
-    private EsTweetSinkBuilder() {}
-}
\ No newline at end of file
+    /**
+     * Instanciate `EsBulkBolt` instance, which always acks tuples once indexed. The index/type string
+     * is taken as an index name.
+     */
+    public EsBulkBolt buildBulk() {
+        return new EsBulkBolt(
+                this.esNodes,
+                this.indexType,
+                this.batchSizeEntries,
+                this.batchSizeBytes,
+                this.flushIntervalSecs,
+                this.concurrentRequests,
+                this.retryCount,
+                this.retryWait,
+                this.idField);
+    }
+}
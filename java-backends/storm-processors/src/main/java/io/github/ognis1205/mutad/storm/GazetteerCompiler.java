@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.ParseException;
+import io.github.ognis1205.mutad.storm.utils.impl.TrieGeoParser;
+
+/**
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class GazetteerCompiler {
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+
+        Option csv = Option.builder("a")
+                .required(true)
+                .hasArg(true)
+                .desc("specifies world cities CSV file")
+                .longOpt("csv")
+                .build();
+
+        Option output = Option.builder("b")
+                .required(true)
+                .hasArg(true)
+                .desc("specifies dictionary file to be written")
+                .longOpt("output")
+                .build();
+
+        options.addOption(csv);
+        options.addOption(output);
+        CommandLineParser parser = new DefaultParser();
+
+        try {
+            CommandLine commandLine = parser.parse(options, args);
+            try (InputStream in = Files.newInputStream(Paths.get(commandLine.getOptionValue("a")))) {
+                new TrieGeoParser(in).save(Paths.get(commandLine.getOptionValue("b")));
+            }
+        } catch (ParseException exception) {
+            System.err.print("parse error: ");
+            System.err.println(exception.getMessage());
+        }
+    }
+}
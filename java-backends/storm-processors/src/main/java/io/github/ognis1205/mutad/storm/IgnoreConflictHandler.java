@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm;
+
+import java.util.Properties;
+import org.elasticsearch.hadoop.handler.HandlerResult;
+import org.elasticsearch.hadoop.rest.bulk.handler.BulkWriteErrorHandler;
+import org.elasticsearch.hadoop.rest.bulk.handler.BulkWriteFailure;
+import org.elasticsearch.hadoop.rest.bulk.handler.DelayableErrorCollector;
+
+/**
+ * Bulk write error handler of `EsBolt` which treats version conflicts as successes, so that
+ * creating a document which already exists, e.g., on a replay, is a no-op.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class IgnoreConflictHandler implements BulkWriteErrorHandler {
+    /** HTTP status of version conflicts. */
+    private static final int CONFLICT = 409;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(Properties properties) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HandlerResult onError(BulkWriteFailure entry, DelayableErrorCollector<byte[]> collector) {
+        return entry.getResponseCode() == IgnoreConflictHandler.CONFLICT ? HandlerResult.HANDLED : HandlerResult.PASS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        // Do nothing.
+    }
+}
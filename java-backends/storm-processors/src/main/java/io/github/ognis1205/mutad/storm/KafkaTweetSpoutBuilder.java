@@ -15,8 +15,12 @@
  */
 package io.github.ognis1205.mutad.storm;
 
+import java.util.List;
 import java.util.Properties;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.storm.kafka.spout.FirstPollOffsetStrategy;
 import org.apache.storm.kafka.spout.KafkaSpout;
@@ -43,7 +47,6 @@ public class KafkaTweetSpoutBuilder {
         props.put(ConsumerConfig.GROUP_ID_CONFIG,                 groupId                           );
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,   StringDeserializer.class.getName());
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.SECURITY_PROVIDERS_CONFIG,       StringDeserializer.class.getName());
 
         KafkaSpoutConfig<String, String> kafkaSpoutConfig = KafkaSpoutConfig
                 .builder(bootstrapServers, topic)
@@ -55,5 +58,63 @@ public class KafkaTweetSpoutBuilder {
         return new KafkaSpout<String, String>(kafkaSpoutConfig);
     }
 
+    /**
+     * Instanciate `KafkaSpout` instance which emits raw UTF-8 `byte[]` values, so that downstream
+     * bolts parse tweets without decoding them into `String` first.
+     * @param bootstrapServers Comma-separated Kafka bootstrap servers.
+     * @param topic Kafka topic.
+     * @param groupId Kafka consumer group id.
+     * @param fetchMinBytes `fetch.min.bytes`, or non-positive for the Kafka default.
+     * @param maxPollRecords `max.poll.records`, or non-positive for the Kafka default.
+     * @param maxPartitionFetchBytes `max.partition.fetch.bytes`, or non-positive for the Kafka default.
+     */
+    public static KafkaSpout<byte[], byte[]> buildBytes(
+            String bootstrapServers,
+            String topic,
+            String groupId,
+            int fetchMinBytes,
+            int maxPollRecords,
+            int maxPartitionFetchBytes) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG,                 groupId                              );
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,   ByteArrayDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        if (fetchMinBytes > 0) {
+            props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(fetchMinBytes));
+        }
+        if (maxPollRecords > 0) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        }
+        if (maxPartitionFetchBytes > 0) {
+            props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(maxPartitionFetchBytes));
+        }
+
+        KafkaSpoutConfig<byte[], byte[]> kafkaSpoutConfig = new KafkaSpoutConfig.Builder<byte[], byte[]>(bootstrapServers, topic)
+                .setProp(props)
+                .setFirstPollOffsetStrategy(FirstPollOffsetStrategy.UNCOMMITTED_EARLIEST)
+                .setRecordTranslator((r) -> new Values(r.value()), new Fields(FIELD))
+                .build();
+
+        return new KafkaSpout<byte[], byte[]>(kafkaSpoutConfig);
+    }
+
+    /**
+     * Returns the number of partitions of a given topic, i.e., the number of spout executors which
+     * may consume it in parallel.
+     * @param bootstrapServers Comma-separated Kafka bootstrap servers.
+     * @param topic Kafka topic.
+     * @return the number of partitions, at least 1.
+     */
+    public static int partitions(String bootstrapServers, String topic) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,        bootstrapServers                     );
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,   ByteArrayDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props)) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic);
+            return partitions == null || partitions.isEmpty() ? 1 : partitions.size();
+        }
+    }
+
     private KafkaTweetSpoutBuilder() {}
 }
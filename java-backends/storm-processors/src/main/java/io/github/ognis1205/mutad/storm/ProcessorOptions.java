@@ -0,0 +1,497 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import io.github.ognis1205.mutad.storm.bolts.TweetCleanBolt;
+import io.github.ognis1205.mutad.storm.groupings.Grouping;
+
+/**
+ * Command line options of `ProcessorTopology`.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class ProcessorOptions {
+    /** Elasticsearch indices which may be tuned separately. */
+    public static final String[] INDICES = {"tweet", "geo"};
+
+    /** Bolts whose input groupings may be chosen separately. */
+    public static final String[] BOLTS = {"clean", "enrich", "encode", "es-tweet", "es-geo"};
+
+    /** Parsed command line. */
+    private final CommandLine commandLine;
+
+    /**
+     * Instanciate `ProcessorOptions` instance.
+     * @param commandLine the parsed command line.
+     */
+    private ProcessorOptions(CommandLine commandLine) {
+        this.commandLine = commandLine;
+    }
+
+    /**
+     * Parses given command line arguments.
+     * @param args the command line arguments.
+     * @return the parsed options.
+     * @throws ParseException if the arguments are invalid.
+     */
+    public static ProcessorOptions parse(String[] args) throws ParseException {
+        CommandLineParser parser = new DefaultParser();
+        return new ProcessorOptions(parser.parse(ProcessorOptions.options(), args));
+    }
+
+    /**
+     * Returns the definitions of the command line options.
+     * @return the options.
+     */
+    public static Options options() {
+        Options options = new Options();
+
+        options.addOption(Option.builder("a")
+                .required(true)
+                .hasArg(true)
+                .desc("specifies Kafka bootstrap servers in csv format")
+                .longOpt("kafka-broker-list")
+                .build());
+
+        options.addOption(Option.builder("b")
+                .required(true)
+                .hasArg(true)
+                .desc("specifies Kafka topic")
+                .longOpt("kafka-topic")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies fetch.min.bytes of Kafka consumers, defaults to Kafka default")
+                .longOpt("kafka-fetch-min-bytes")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies max.poll.records of Kafka consumers, defaults to Kafka default")
+                .longOpt("kafka-max-poll-records")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies max.partition.fetch.bytes of Kafka consumers, defaults to Kafka default")
+                .longOpt("kafka-max-partition-fetch-bytes")
+                .build());
+
+        options.addOption(Option.builder("c")
+                .required(true)
+                .hasArg(true)
+                .desc("specifies Elasticsearch node servers in csv format")
+                .longOpt("es-node-list")
+                .build());
+
+        options.addOption(Option.builder("d")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies directory watched for gazetteer dictionary files")
+                .longOpt("gazetteer-dir")
+                .build());
+
+        options.addOption(Option.builder("e")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies accepted tweet languages in csv format, defaults to en")
+                .longOpt("langs")
+                .build());
+
+        options.addOption(Option.builder("f")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of tuples cleaned in a micro-batch, disables micro-batching if omitted")
+                .longOpt("clean-batch-size")
+                .build());
+
+        options.addOption(Option.builder("g")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies maximum interval in milliseconds for which tuples are buffered, defaults to 1000")
+                .longOpt("clean-batch-interval")
+                .build());
+
+        options.addOption(Option.builder("i")
+                .required(false)
+                .hasArg(true)
+                .desc("specifies encoding of cleaned tweets, either bean or bytes, defaults to bean")
+                .longOpt("clean-encoding")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of Kafka spout executors, at most the number of partitions, 0 for one per partition, defaults to 1")
+                .longOpt("spout-parallelism")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of clean bolt executors, defaults to 1")
+                .longOpt("clean-parallelism")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of encode bolt executors, defaults to 1")
+                .longOpt("encode-parallelism")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of geo enrichment bolt executors, defaults to 1, 0 disables enrichment")
+                .longOpt("enrich-parallelism")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of executors of each Elasticsearch sink, defaults to 1")
+                .longOpt("es-parallelism")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of worker processes, defaults to 1")
+                .longOpt("workers")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies maximum number of pending tuples per spout task, defaults to 5000")
+                .longOpt("max-spout-pending")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of documents in an Elasticsearch bulk request, defaults to 100")
+                .longOpt("es-batch-size")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies size of an Elasticsearch bulk request, e.g., 1mb, defaults to 1mb")
+                .longOpt("es-batch-bytes")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies interval in seconds at which Elasticsearch bulk requests are flushed, defaults to 5")
+                .longOpt("es-flush-interval")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies grouping of bolt inputs, shuffle, local-or-shuffle or user, defaults to local-or-shuffle")
+                .longOpt("grouping")
+                .build());
+
+        for (String bolt : ProcessorOptions.BOLTS) {
+            options.addOption(Option.builder()
+                    .required(false)
+                    .hasArg(true)
+                    .desc("overrides --grouping for the inputs of the " + bolt + " bolt")
+                    .longOpt(bolt + "-grouping")
+                    .build());
+        }
+
+        for (String index : ProcessorOptions.INDICES) {
+            options.addOption(Option.builder()
+                    .required(false)
+                    .hasArg(true)
+                    .desc("overrides --es-batch-size for the " + index + " index")
+                    .longOpt("es-" + index + "-batch-size")
+                    .build());
+
+            options.addOption(Option.builder()
+                    .required(false)
+                    .hasArg(true)
+                    .desc("overrides --es-batch-bytes for the " + index + " index")
+                    .longOpt("es-" + index + "-batch-bytes")
+                    .build());
+
+            options.addOption(Option.builder()
+                    .required(false)
+                    .hasArg(true)
+                    .desc("overrides --es-flush-interval for the " + index + " index")
+                    .longOpt("es-" + index + "-flush-interval")
+                    .build());
+        }
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies Elasticsearch sink, either es-hadoop or bulk, defaults to es-hadoop")
+                .longOpt("es-sink")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of bulk requests in flight per bulk sink executor, defaults to 1")
+                .longOpt("es-concurrent-requests")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of retries of a rejected Elasticsearch bulk request, defaults to 3")
+                .longOpt("es-retry-count")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies wait between retries of a rejected Elasticsearch bulk request, defaults to 10s")
+                .longOpt("es-retry-wait")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies number of acker executors, 0 disables acking, defaults to one per worker")
+                .longOpt("ackers")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies seconds after which a pending tuple is failed, defaults to 30")
+                .longOpt("message-timeout")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies target complete latency in milliseconds, enables adaptive spout pending if given")
+                .longOpt("target-latency")
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .hasArg(true)
+                .desc("specifies minimum number of pending tuples per spout task under adaptive control, defaults to 100")
+                .longOpt("min-spout-pending")
+                .build());
+
+        return options;
+    }
+
+    /** Getter. */
+    public String getKafkaBrokerList() {
+        return this.commandLine.getOptionValue("kafka-broker-list");
+    }
+
+    /** Getter. */
+    public String getKafkaTopic() {
+        return this.commandLine.getOptionValue("kafka-topic");
+    }
+
+    /** Getter. */
+    public int getKafkaFetchMinBytes() {
+        return this.getInt("kafka-fetch-min-bytes", 0);
+    }
+
+    /** Getter. */
+    public int getKafkaMaxPollRecords() {
+        return this.getInt("kafka-max-poll-records", 0);
+    }
+
+    /** Getter. */
+    public int getKafkaMaxPartitionFetchBytes() {
+        return this.getInt("kafka-max-partition-fetch-bytes", 0);
+    }
+
+    /** Getter. */
+    public String getEsNodeList() {
+        return this.commandLine.getOptionValue("es-node-list");
+    }
+
+    /** Getter. */
+    public String getGazetteerDirectory() {
+        return this.commandLine.getOptionValue("gazetteer-dir");
+    }
+
+    /** Getter. */
+    public String[] getLangs() {
+        return this.commandLine.hasOption("langs")
+                ? this.commandLine.getOptionValue("langs").split(",")
+                : TweetCleanBolt.DEFAULT_LANGS;
+    }
+
+    /** Getter, returns `0` if micro-batching is disabled. */
+    public int getCleanBatchSize() {
+        return this.getInt("clean-batch-size", 0);
+    }
+
+    /** Getter. */
+    public long getCleanBatchInterval() {
+        return Long.parseLong(this.commandLine.getOptionValue("clean-batch-interval", "1000"));
+    }
+
+    /** Getter. */
+    public TweetCleanBolt.Encoding getCleanEncoding() {
+        return TweetCleanBolt.Encoding.valueOf(this.commandLine.getOptionValue("clean-encoding", "bean").toUpperCase());
+    }
+
+    /** Getter. */
+    public int getSpoutParallelism() {
+        return this.getInt("spout-parallelism", 1);
+    }
+
+    /** Getter. */
+    public int getCleanParallelism() {
+        return this.getInt("clean-parallelism", 1);
+    }
+
+    /** Getter. */
+    public int getEncodeParallelism() {
+        return this.getInt("encode-parallelism", 1);
+    }
+
+    /** Getter. */
+    public int getEnrichParallelism() {
+        return this.getInt("enrich-parallelism", 1);
+    }
+
+    /** Getter. */
+    public int getEsParallelism() {
+        return this.getInt("es-parallelism", 1);
+    }
+
+    /** Getter. */
+    public int getWorkers() {
+        return this.getInt("workers", 1);
+    }
+
+    /** Getter. */
+    public int getMaxSpoutPending() {
+        return this.getInt("max-spout-pending", 5000);
+    }
+
+    /** Getter. */
+    public int getEsBatchSize(String index) {
+        return Integer.parseInt(this.getEsOption(index, "batch-size", "100"));
+    }
+
+    /** Getter. */
+    public String getEsBatchBytes(String index) {
+        return this.getEsOption(index, "batch-bytes", "1mb");
+    }
+
+    /** Getter. */
+    public int getEsFlushInterval(String index) {
+        return Integer.parseInt(this.getEsOption(index, "flush-interval", "5"));
+    }
+
+    /** Getter. */
+    public Grouping getGrouping(String bolt) {
+        return Grouping.of(this.commandLine.getOptionValue(
+                bolt + "-grouping",
+                this.commandLine.getOptionValue("grouping", Grouping.LOCAL_OR_SHUFFLE.getName())));
+    }
+
+    /** Getter, returns `true` if the asynchronous bulk sink is used. */
+    public boolean getEsBulkSink() {
+        String sink = this.commandLine.getOptionValue("es-sink", "es-hadoop");
+        if (!sink.equals("es-hadoop") && !sink.equals("bulk")) {
+            throw new IllegalArgumentException("unknown Elasticsearch sink: " + sink);
+        }
+        return sink.equals("bulk");
+    }
+
+    /** Getter. */
+    public int getEsConcurrentRequests() {
+        return this.getInt("es-concurrent-requests", 1);
+    }
+
+    /** Getter. */
+    public int getEsRetryCount() {
+        return this.getInt("es-retry-count", 3);
+    }
+
+    /** Getter. */
+    public String getEsRetryWait() {
+        return this.commandLine.getOptionValue("es-retry-wait", "10s");
+    }
+
+    /** Getter, returns `-1` if not specified. */
+    public int getAckers() {
+        return this.getInt("ackers", -1);
+    }
+
+    /** Getter, returns `-1` if not specified. */
+    public int getMessageTimeout() {
+        return this.getInt("message-timeout", -1);
+    }
+
+    /** Getter, returns `0` if adaptive spout pending is disabled. */
+    public long getTargetLatency() {
+        return this.commandLine.hasOption("target-latency")
+                ? Long.parseLong(this.commandLine.getOptionValue("target-latency"))
+                : 0L;
+    }
+
+    /** Getter. */
+    public int getMinSpoutPending() {
+        return this.getInt("min-spout-pending", 100);
+    }
+
+    /**
+     * Returns the value of an Elasticsearch option for a given index, falling back to the option for all indices.
+     * @param index the index name.
+     * @param name the option name without the `es-` prefix.
+     * @param defaultValue the value returned if both options are omitted.
+     * @return the value of the option.
+     */
+    private String getEsOption(String index, String name, String defaultValue) {
+        return this.commandLine.getOptionValue(
+                "es-" + index + "-" + name,
+                this.commandLine.getOptionValue("es-" + name, defaultValue));
+    }
+
+    /**
+     * Returns the integer value of a given option.
+     * @param name the long name of an option.
+     * @param defaultValue the value returned if the option is omitted.
+     * @return the value of the option.
+     */
+    private int getInt(String name, int defaultValue) {
+        return this.commandLine.hasOption(name)
+                ? Integer.parseInt(this.commandLine.getOptionValue(name))
+                : defaultValue;
+    }
+}
@@ -15,20 +15,26 @@
  */
 package io.github.ognis1205.mutad.storm;
 
-import org.apache.commons.cli.CommandLine;
-import org.apache.commons.cli.Option;
-import org.apache.commons.cli.Options;
-import org.apache.commons.cli.CommandLineParser;
-import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.ParseException;
 import org.apache.storm.Config;
 import org.apache.storm.StormSubmitter;
+import org.apache.storm.topology.BoltDeclarer;
+import org.apache.storm.topology.IRichSpout;
 import org.apache.storm.topology.TopologyBuilder;
-import org.json.JSONObject;
+import org.apache.storm.utils.Utils;
 import io.github.ognis1205.mutad.storm.beans.Geo;
 import io.github.ognis1205.mutad.storm.beans.LonLat;
 import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.bolts.BatchTweetCleanBolt;
+import io.github.ognis1205.mutad.storm.bolts.GeoEnrichBolt;
+import io.github.ognis1205.mutad.storm.bolts.JsonEncodeBolt;
 import io.github.ognis1205.mutad.storm.bolts.TweetCleanBolt;
+import io.github.ognis1205.mutad.storm.mappers.Geo2JSON;
+import io.github.ognis1205.mutad.storm.mappers.Tweet2JSON;
+import io.github.ognis1205.mutad.storm.serializers.GeoSerializer;
+import io.github.ognis1205.mutad.storm.serializers.LonLatSerializer;
+import io.github.ognis1205.mutad.storm.serializers.TweetSerializer;
+import io.github.ognis1205.mutad.storm.spouts.AdaptivePendingSpout;
 
 /**
  * @author Shingo OKAWA
@@ -36,75 +42,121 @@ import io.github.ognis1205.mutad.storm.bolts.TweetCleanBolt;
  */
 public class ProcessorTopology {
     public static void main(String[] args) throws Exception {
-        Options options = new Options();
-
-        Option kafkaServers = Option.builder("a")
-                .required(true)
-                .hasArg(true)
-                .desc("specifies Kafka bootstrap servers in csv format")
-                .longOpt("kafka-broker-list")
-                .build();
-
-        Option kafkaTopic = Option.builder("b")
-                .required(true)
-                .hasArg(true)
-                .desc("specifies Kafka topic")
-                .longOpt("kafka-topic")
-                .build();
-
-        Option esNodes = Option.builder("c")
-                .required(true)
-                .hasArg(true)
-                .desc("specifies Elasticsearch node servers in csv format")
-                .longOpt("es-node-list")
-                .build();
-
-        options.addOption(kafkaServers);
-        options.addOption(kafkaTopic);
-        options.addOption(esNodes);
-        CommandLineParser parser = new DefaultParser();
-
         try {
-            CommandLine commandLine = parser.parse(options, args);
+            ProcessorOptions options = ProcessorOptions.parse(args);
             TopologyBuilder builder = new TopologyBuilder();
 
+            final boolean adaptive = options.getTargetLatency() > 0L;
+            IRichSpout spout = KafkaTweetSpoutBuilder.buildBytes(
+                    options.getKafkaBrokerList(),
+                    options.getKafkaTopic(),
+                    "storm-processor",
+                    options.getKafkaFetchMinBytes(),
+                    options.getKafkaMaxPollRecords(),
+                    options.getKafkaMaxPartitionFetchBytes());
+            if (adaptive) {
+                spout = new AdaptivePendingSpout(
+                        spout,
+                        options.getMinSpoutPending(),
+                        options.getMaxSpoutPending(),
+                        options.getTargetLatency());
+            }
             builder.setSpout(
                     "kafka",
-                    KafkaTweetSpoutBuilder.build(
-                            commandLine.getOptionValue("a"),
-                            commandLine.getOptionValue("b"),
-                            "storm-processor"),
-                    1);
+                    spout,
+                    options.getSpoutParallelism() > 0
+                            ? options.getSpoutParallelism()
+                            : KafkaTweetSpoutBuilder.partitions(options.getKafkaBrokerList(), options.getKafkaTopic()));
 
-            builder.setBolt(
+            BoltDeclarer clean = builder.setBolt(
                     "clean",
-                    new TweetCleanBolt(),
-                    1)
-                    .shuffleGrouping("kafka");
+                    options.getCleanBatchSize() > 0
+                            ? new BatchTweetCleanBolt(
+                                    options.getLangs(),
+                                    options.getCleanEncoding(),
+                                    options.getCleanBatchSize(),
+                                    options.getCleanBatchInterval())
+                            : new TweetCleanBolt(
+                                    options.getLangs(),
+                                    options.getCleanEncoding()),
+                    options.getCleanParallelism());
+            options.getGrouping("clean").apply(clean, "kafka", Utils.DEFAULT_STREAM_ID);
+
+            final boolean enrich = options.getGazetteerDirectory() != null && options.getEnrichParallelism() > 0;
+            if (enrich) {
+                BoltDeclarer geoEnrich = builder.setBolt(
+                        "enrich",
+                        new GeoEnrichBolt(
+                                options.getGazetteerDirectory(),
+                                options.getCleanEncoding()),
+                        options.getEnrichParallelism());
+                options.getGrouping("enrich").apply(
+                        geoEnrich,
+                        "clean",
+                        options.getCleanEncoding() == TweetCleanBolt.Encoding.BEAN
+                                ? TweetCleanBolt.TWEET_STREAM
+                                : TweetCleanBolt.ENRICH_STREAM);
+            }
+
+            String sinkSource = "clean";
+            if (options.getCleanEncoding() == TweetCleanBolt.Encoding.BEAN) {
+                BoltDeclarer encode = builder.setBolt(
+                        "encode",
+                        new JsonEncodeBolt(),
+                        options.getEncodeParallelism());
+                options.getGrouping("encode").apply(encode, "clean", TweetCleanBolt.TWEET_STREAM);
+                options.getGrouping("encode").apply(encode, "clean", TweetCleanBolt.GEO_STREAM);
+                if (enrich) {
+                    options.getGrouping("encode").apply(encode, "enrich", TweetCleanBolt.GEO_STREAM);
+                }
+                sinkSource = "encode";
+            }
 
-            builder.setBolt(
+            EsTweetSinkBuilder tweetSink = EsTweetSinkBuilder.builder(options.getEsNodeList(), "tweet")
+                    .batchSizeEntries(options.getEsBatchSize("tweet"))
+                    .batchSizeBytes(options.getEsBatchBytes("tweet"))
+                    .flushIntervalSecs(options.getEsFlushInterval("tweet"))
+                    .retryCount(options.getEsRetryCount())
+                    .retryWait(options.getEsRetryWait())
+                    .concurrentRequests(options.getEsConcurrentRequests())
+                    .idField(Tweet2JSON.ID_FIELD)
+                    .ack(adaptive);
+            BoltDeclarer esTweet = builder.setBolt(
                     "es-tweet",
-                    EsTweetSinkBuilder.build(
-                            commandLine.getOptionValue("c"),
-                            "tweet"),
-                    1)
-                    .shuffleGrouping("clean", TweetCleanBolt.TWEET_STREAM);
+                    options.getEsBulkSink() ? tweetSink.buildBulk() : tweetSink.build(),
+                    options.getEsParallelism());
+            options.getGrouping("es-tweet").apply(esTweet, sinkSource, TweetCleanBolt.TWEET_STREAM);
 
-            builder.setBolt(
+            EsTweetSinkBuilder geoSink = EsTweetSinkBuilder.builder(options.getEsNodeList(), "geo")
+                    .batchSizeEntries(options.getEsBatchSize("geo"))
+                    .batchSizeBytes(options.getEsBatchBytes("geo"))
+                    .flushIntervalSecs(options.getEsFlushInterval("geo"))
+                    .retryCount(options.getEsRetryCount())
+                    .retryWait(options.getEsRetryWait())
+                    .concurrentRequests(options.getEsConcurrentRequests())
+                    .idField(Geo2JSON.ID_FIELD)
+                    .ack(adaptive);
+            BoltDeclarer esGeo = builder.setBolt(
                     "es-geo",
-                    EsTweetSinkBuilder.build(
-                            commandLine.getOptionValue("c"),
-                            "geo"),
-                    1)
-                    .shuffleGrouping("clean", TweetCleanBolt.GEO_STREAM);
+                    options.getEsBulkSink() ? geoSink.buildBulk() : geoSink.build(),
+                    options.getEsParallelism());
+            options.getGrouping("es-geo").apply(esGeo, sinkSource, TweetCleanBolt.GEO_STREAM);
+            if (enrich && options.getCleanEncoding() == TweetCleanBolt.Encoding.BYTES) {
+                options.getGrouping("es-geo").apply(esGeo, "enrich", TweetCleanBolt.GEO_STREAM);
+            }
 
             Config conf = new Config();
-            conf.registerSerialization(Geo.class);
-            conf.registerSerialization(LonLat.class);
-            conf.registerSerialization(Tweet.class);
-            conf.registerSerialization(JSONObject.class);
-            conf.setMaxSpoutPending(5000);
-            conf.setNumWorkers(1);
+            conf.registerSerialization(Geo.class, GeoSerializer.class);
+            conf.registerSerialization(LonLat.class, LonLatSerializer.class);
+            conf.registerSerialization(Tweet.class, TweetSerializer.class);
+            conf.setMaxSpoutPending(options.getMaxSpoutPending());
+            conf.setNumWorkers(options.getWorkers());
+            if (options.getAckers() >= 0) {
+                conf.setNumAckers(options.getAckers());
+            }
+            if (options.getMessageTimeout() > 0) {
+                conf.setMessageTimeoutSecs(options.getMessageTimeout());
+            }
             conf.setDebug(false);
 
             StormSubmitter.submitTopology("processors", conf, builder.createTopology());
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.bolts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.Config;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.utils.TupleUtils;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+
+/**
+ * `TweetCleanBolt` which buffers tuples and processes them in micro-batches. A batch is flushed
+ * once it holds a given number of tuples, or once its oldest tuple has been buffered for a given
+ * interval; tick tuples make sure that the latter also happens while no tuple arrives.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class BatchTweetCleanBolt extends TweetCleanBolt {
+    /** Frequency of tick tuples in seconds. */
+    private static final int TICK_FREQ_SECS = 1;
+
+    /** Maximum number of buffered tuples. */
+    private final int batchSize;
+
+    /** Maximum interval in milliseconds for which a tuple is buffered. */
+    private final long batchIntervalMs;
+
+    /** Buffered tuples. */
+    private transient List<Tuple> tuples;
+
+    /** Tweets mapped from the buffered tuples. */
+    private transient List<Tweet> tweets;
+
+    /** Time in milliseconds at which the oldest buffered tuple arrived. */
+    private transient long since;
+
+    /**
+     * Instanciate `BatchTweetCleanBolt` instance.
+     * @param langs the accepted languages; every language is accepted if empty.
+     * @param encoding the encoding of emitted tweets.
+     * @param batchSize the maximum number of buffered tuples.
+     * @param batchIntervalMs the maximum interval in milliseconds for which a tuple is buffered.
+     */
+    public BatchTweetCleanBolt(String[] langs, Encoding encoding, int batchSize, long batchIntervalMs) {
+        super(langs, encoding);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.batchIntervalMs = batchIntervalMs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        super.prepare(map, topologyContext, collector);
+        this.tuples = new ArrayList<>(this.batchSize);
+        this.tweets = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple tuple) {
+        if (TupleUtils.isTick(tuple)) {
+            if (!this.tuples.isEmpty() && System.currentTimeMillis() - this.since >= this.batchIntervalMs) {
+                this.flush();
+            }
+            return;
+        }
+        if (this.tuples.isEmpty()) {
+            this.since = System.currentTimeMillis();
+        }
+        this.tuples.add(tuple);
+        if (this.tuples.size() >= this.batchSize || System.currentTimeMillis() - this.since >= this.batchIntervalMs) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Parses and cleans the buffered tuples, then emits the results and acks the tuples.
+     */
+    private void flush() {
+        for (Tuple tuple : this.tuples) {
+            this.tweets.add(this.map(tuple));
+        }
+        for (int i = 0; i < this.tuples.size(); i++) {
+            if (this.tweets.get(i) != null) {
+                this.emit(this.tuples.get(i), this.tweets.get(i));
+            }
+        }
+        for (Tuple tuple : this.tuples) {
+            this.collector.ack(tuple);
+        }
+        this.tuples.clear();
+        this.tweets.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        Config conf = new Config();
+        conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, BatchTweetCleanBolt.TICK_FREQ_SECS);
+        return conf;
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.bolts;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.http.HttpHost;
+import org.apache.storm.Config;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.base.BaseRichBolt;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.apache.storm.utils.TupleUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sink bolt which indexes JSON documents with the asynchronous `BulkProcessor` of the Elasticsearch
+ * high-level REST client, so that bulk round trips do not block the executor. A tuple is acked once
+ * its own document is indexed. Documents rejected with a retriable status are failed to be replayed
+ * from the spout, and the others are emitted to `DEAD_LETTER_STREAM` along with the failure, then acked.
+ * Outcomes reported by the client threads are queued and settled on the executor thread, at the latest
+ * on the next tick tuple. Unless a flush interval is given, partial bulks are flushed on tick tuples,
+ * so that tuples never time out in a partial bulk. Since a retried bulk request only holds the rejected
+ * documents, item responses are matched with documents in each round of retries, and the last response
+ * of each document settles its tuple. If an id field is given, documents are created with the id held in the field
+ * and version conflicts count as successes, so replayed tuples cost no extra writes.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class EsBulkBolt extends BaseRichBolt {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(EsBulkBolt.class);
+
+    /** Stream name. */
+    public static final String DEAD_LETTER_STREAM = "dead-letter";
+
+    /** Field name. */
+    public static final String FIELD = "json";
+
+    /** Field name. */
+    public static final String ERROR_FIELD = "error";
+
+    /** Frequency of tick tuples in seconds. */
+    private static final int TICK_FREQ_SECS = 1;
+
+    /** Seconds to wait for in-flight bulk requests on cleanup. */
+    private static final long CLOSE_TIMEOUT_SECS = 30L;
+
+    /** JSON factory to look up document ids. */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** Outcome of a document. */
+    private static final class Outcome {
+        /** The tuple holding the document. */
+        private final Tuple tuple;
+
+        /** `null` if indexed, otherwise the failure message. */
+        private final String failure;
+
+        /** `true` if the failure is worth replaying. */
+        private final boolean retriable;
+
+        /** Constructor. */
+        Outcome(Tuple tuple, String failure, boolean retriable) {
+            this.tuple = tuple;
+            this.failure = failure;
+            this.retriable = retriable;
+        }
+    }
+
+    /** Comma-separated Elasticsearch nodes. */
+    private final String esNodes;
+
+    /** Index name. */
+    private final String index;
+
+    /** Maximum number of documents in a bulk request. */
+    private final int bulkActions;
+
+    /** Maximum size of a bulk request, e.g., `1mb`. */
+    private final String bulkSize;
+
+    /** Interval in seconds at which bulk requests are flushed, or `0` to flush on every tick tuple. */
+    private final int flushIntervalSecs;
+
+    /** Maximum number of bulk requests in flight. */
+    private final int concurrentRequests;
+
+    /** Number of retries of a rejected bulk request. */
+    private final int retryCount;
+
+    /** Wait between retries of a rejected bulk request, e.g., `10s`. */
+    private final String retryWait;
+
+    /** Top-level field holding the document id, or `null` to let Elasticsearch generate ids. */
+    private final String idField;
+
+    /** `OutputCollector` instance to expose the API for emitting tuples. */
+    private transient OutputCollector collector;
+
+    /** Elasticsearch client. */
+    private transient RestHighLevelClient client;
+
+    /** Bulk processor. */
+    private transient BulkProcessor processor;
+
+    /** Tuples of the documents in flight. */
+    private transient Map<DocWriteRequest<?>, Tuple> inFlight;
+
+    /** Latest item responses of the documents in flight, updated on each round of retries. */
+    private transient Map<DocWriteRequest<?>, BulkItemResponse> responses;
+
+    /** Outcomes to be settled on the executor thread. */
+    private transient Queue<Outcome> outcomes;
+
+    /**
+     * Instanciate `EsBulkBolt` instance.
+     * @param esNodes comma-separated Elasticsearch nodes, e.g., `localhost:9200`.
+     * @param index the index name.
+     * @param bulkActions the maximum number of documents in a bulk request.
+     * @param bulkSize the maximum size of a bulk request, e.g., `1mb`.
+     * @param flushIntervalSecs the interval in seconds at which bulk requests are flushed, `0` to flush every second.
+     * @param concurrentRequests the maximum number of bulk requests in flight.
+     * @param retryCount the number of retries of a rejected bulk request, negative to retry forever.
+     * @param retryWait the wait between retries of a rejected bulk request, e.g., `10s`.
+     * @param idField the top-level field holding the document id, `null` to let Elasticsearch generate ids.
+     */
+    public EsBulkBolt(
+            String esNodes,
+            String index,
+            int bulkActions,
+            String bulkSize,
+            int flushIntervalSecs,
+            int concurrentRequests,
+            int retryCount,
+            String retryWait,
+            String idField) {
+        this.esNodes = esNodes;
+        this.index = index;
+        this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
+        this.flushIntervalSecs = flushIntervalSecs;
+        this.concurrentRequests = concurrentRequests;
+        this.retryCount = retryCount;
+        this.retryWait = retryWait;
+        this.idField = idField;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        this.collector = collector;
+        this.inFlight = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.responses = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.outcomes = new ConcurrentLinkedQueue<>();
+        List<HttpHost> hosts = new ArrayList<>();
+        for (String node : this.esNodes.split(",")) {
+            hosts.add(HttpHost.create(node.contains("://") ? node : "http://" + node));
+        }
+        this.client = new RestHighLevelClient(RestClient.builder(hosts.toArray(new HttpHost[0])));
+        BulkProcessor.Builder builder = BulkProcessor.builder(
+                (request, listener) -> this.client.bulkAsync(
+                        request,
+                        RequestOptions.DEFAULT,
+                        ActionListener.wrap(
+                                response -> {
+                                    this.record(request, response);
+                                    listener.onResponse(response);
+                                },
+                                listener::onFailure)),
+                new Listener())
+                .setBulkActions(this.bulkActions)
+                .setBulkSize(ByteSizeValue.parseBytesSizeValue(this.bulkSize, "bulk size"))
+                .setConcurrentRequests(this.concurrentRequests)
+                .setBackoffPolicy(BackoffPolicy.constantBackoff(
+                        TimeValue.parseTimeValue(this.retryWait, "retry wait"),
+                        this.retryCount < 0 ? Integer.MAX_VALUE : this.retryCount));
+        if (this.flushIntervalSecs > 0) {
+            builder.setFlushInterval(TimeValue.timeValueSeconds(this.flushIntervalSecs));
+        }
+        this.processor = builder.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple tuple) {
+        if (!TupleUtils.isTick(tuple)) {
+            Object json = tuple.getValue(0);
+            byte[] source = json instanceof byte[]
+                    ? (byte[]) json
+                    : String.valueOf(json).getBytes(StandardCharsets.UTF_8);
+            IndexRequest request = new IndexRequest(this.index).source(source, XContentType.JSON);
+            if (this.idField != null) {
+                String id = EsBulkBolt.docId(source, this.idField);
+                if (id != null) {
+                    request.id(id).opType(DocWriteRequest.OpType.CREATE);
+                }
+            }
+            this.inFlight.put(request, tuple);
+            this.processor.add(request);
+        } else if (this.flushIntervalSecs <= 0) {
+            this.processor.flush();
+        }
+        this.settle();
+    }
+
+    /**
+     * Records the item responses of a round of a bulk request, whose item ids are the positions of the
+     * documents in that round rather than in the original request.
+     * @param request the bulk request of the round.
+     * @param response the response of the round.
+     */
+    private void record(BulkRequest request, BulkResponse response) {
+        List<DocWriteRequest<?>> requests = request.requests();
+        for (BulkItemResponse item : response.getItems()) {
+            this.responses.put(requests.get(item.getItemId()), item);
+        }
+    }
+
+    /**
+     * Acks, fails or dead-letters the tuples whose outcomes are known.
+     */
+    private void settle() {
+        Outcome outcome;
+        while ((outcome = this.outcomes.poll()) != null) {
+            if (outcome.failure == null) {
+                this.collector.ack(outcome.tuple);
+            } else if (outcome.retriable) {
+                this.collector.fail(outcome.tuple);
+            } else {
+                LOG.warn("dead-lettered document for {}: {}", this.index, outcome.failure);
+                this.collector.emit(
+                        DEAD_LETTER_STREAM,
+                        outcome.tuple,
+                        new Values(outcome.tuple.getValue(0), outcome.failure));
+                this.collector.ack(outcome.tuple);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        try {
+            if (this.processor != null) {
+                this.processor.awaitClose(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (this.client != null) {
+                this.client.close();
+            }
+        } catch (IOException e) {
+            LOG.warn("failed to close Elasticsearch client", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        declarer.declareStream(DEAD_LETTER_STREAM, new Fields(FIELD, ERROR_FIELD));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        Config conf = new Config();
+        conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, EsBulkBolt.TICK_FREQ_SECS);
+        return conf;
+    }
+
+    /**
+     * Returns the value of a given top-level field of a JSON document, skipping nested values.
+     * @param source the JSON document.
+     * @param field the field name.
+     * @return the value as text, or `null` if absent, null or malformed.
+     */
+    static String docId(byte[] source, String field) {
+        try (JsonParser parser = EsBulkBolt.JSON_FACTORY.createParser(source)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(name)) {
+                    return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            LOG.warn("failed to look up document id", e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns `true` if a document rejected with a given status may be indexed on replay.
+     * @param status the status of the rejection.
+     * @return `true` if the rejection is transient.
+     */
+    private static boolean isRetriable(RestStatus status) {
+        return status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+    }
+
+    /** Listener which queues the outcomes of the documents in bulk requests. */
+    private class Listener implements BulkProcessor.Listener {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            // Do nothing.
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            for (DocWriteRequest<?> r : request.requests()) {
+                Tuple tuple = EsBulkBolt.this.inFlight.remove(r);
+                BulkItemResponse item = EsBulkBolt.this.responses.remove(r);
+                if (tuple == null) {
+                    continue;
+                }
+                if (item == null) {
+                    EsBulkBolt.this.outcomes.add(new Outcome(tuple, "no item response", true));
+                } else if (item.isFailed() && item.getFailure().getStatus() != RestStatus.CONFLICT) {
+                    EsBulkBolt.this.outcomes.add(new Outcome(
+                            tuple,
+                            item.getFailureMessage(),
+                            EsBulkBolt.isRetriable(item.getFailure().getStatus())));
+                } else {
+                    EsBulkBolt.this.outcomes.add(new Outcome(tuple, null, false));
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            LOG.warn("bulk request to {} failed", EsBulkBolt.this.index, failure);
+            for (DocWriteRequest<?> r : request.requests()) {
+                Tuple tuple = EsBulkBolt.this.inFlight.remove(r);
+                EsBulkBolt.this.responses.remove(r);
+                if (tuple != null) {
+                    EsBulkBolt.this.outcomes.add(new Outcome(tuple, String.valueOf(failure), true));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.bolts;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.base.BaseRichBolt;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.mappers.JSONBytes;
+import io.github.ognis1205.mutad.storm.mappers.Tweet2Geo;
+import io.github.ognis1205.mutad.storm.utils.GeoParser;
+import io.github.ognis1205.mutad.storm.utils.impl.ReloadableGeoParser;
+
+/**
+ * Resolves the cities mentioned in the texts of `Tweet` beans with a trie based `GeoParser`, and
+ * emits a `Geo` per city to `TweetCleanBolt.GEO_STREAM`, encoded as `TweetCleanBolt` does. Given
+ * tweets are left untouched, since they may be shared with the other bolts of the same worker.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class GeoEnrichBolt extends BaseRichBolt {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(GeoEnrichBolt.class);
+
+    /** `OutputCollector` instance to expose the API for emitting tuples. */
+    private OutputCollector collector;
+
+    /** Directory watched for gazetteer files. */
+    private final String gazetteerDirectory;
+
+    /** Encoding of emitted geo locations. */
+    private final TweetCleanBolt.Encoding encoding;
+
+    /** `ReloadableGeoParser` instance to parse geo locations. */
+    private transient ReloadableGeoParser parser;
+
+    /** `JSONBytes` instance to encode geo locations in `Encoding.BYTES`. */
+    private transient JSONBytes bytes;
+
+    /**
+     * Instanciate `GeoEnrichBolt` instance.
+     * @param gazetteerDirectory the directory watched for gazetteer files, see `ReloadableGeoParser`.
+     * @param encoding the encoding of emitted geo locations.
+     */
+    public GeoEnrichBolt(String gazetteerDirectory, TweetCleanBolt.Encoding encoding) {
+        this.gazetteerDirectory = gazetteerDirectory;
+        this.encoding = encoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        this.collector = collector;
+        this.bytes = new JSONBytes();
+        try {
+            this.parser = new ReloadableGeoParser(Paths.get(this.gazetteerDirectory));
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to watch " + this.gazetteerDirectory, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple tuple) {
+        Object bean = tuple.getValueByField(TweetCleanBolt.BEAN_FIELD);
+        if (bean instanceof Tweet) {
+            Tweet tweet = (Tweet) bean;
+            List<GeoParser.Location> locs = this.parser.parse(tweet.getText());
+            if (!locs.isEmpty()) {
+                List<String> cityNames  = new ArrayList<>(locs.size());
+                List<LonLat> cityCoords = new ArrayList<>(locs.size());
+                for (GeoParser.Location loc : locs) {
+                    cityNames.add(loc.getName());
+                    cityCoords.add(loc.getLonLat());
+                }
+                for (Geo geo : Tweet2Geo.map(tweet, cityNames, cityCoords)) {
+                    if (this.encoding == TweetCleanBolt.Encoding.BYTES) {
+                        this.collector.emit(TweetCleanBolt.GEO_STREAM, tuple, new Values(this.bytes.map(geo)));
+                    } else {
+                        this.collector.emit(TweetCleanBolt.GEO_STREAM, tuple, new Values(geo));
+                    }
+                }
+            }
+        } else {
+            LOG.warn("dropped unexpected value: {}", bean);
+        }
+        this.collector.ack(tuple);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        if (this.parser != null) {
+            try {
+                this.parser.close();
+            } catch (IOException e) {
+                LOG.warn("failed to close geo parser", e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        String field = this.encoding == TweetCleanBolt.Encoding.BYTES ? TweetCleanBolt.FIELD : TweetCleanBolt.BEAN_FIELD;
+        declarer.declareStream(TweetCleanBolt.GEO_STREAM, new Fields(field));
+    }
+}
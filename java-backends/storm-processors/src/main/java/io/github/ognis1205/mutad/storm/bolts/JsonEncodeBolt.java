@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.bolts;
+
+import java.util.Map;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.base.BaseRichBolt;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import io.github.ognis1205.mutad.storm.mappers.Geo2JSON;
+import io.github.ognis1205.mutad.storm.mappers.Tweet2JSON;
+
+/**
+ * Encodes `Tweet` and `Geo` beans emitted by `TweetCleanBolt` into JSON documents for `EsBolt`,
+ * on the stream which they arrive at.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class JsonEncodeBolt extends BaseRichBolt {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(JsonEncodeBolt.class);
+
+    /** Field name. */
+    public static final String FIELD = "json";
+
+    /** `OutputCollector` instance to expose the API for emitting tuples. */
+    private OutputCollector collector;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
+        this.collector = collector;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Tuple tuple) {
+        Object bean = tuple.getValueByField(TweetCleanBolt.BEAN_FIELD);
+        String json = null;
+        if (bean instanceof Tweet) {
+            json = Tweet2JSON.map((Tweet) bean).toString();
+        } else if (bean instanceof Geo) {
+            json = Geo2JSON.map((Geo) bean).toString();
+        } else {
+            LOG.warn("dropped unexpected value: {}", bean);
+        }
+        if (json != null) {
+            LOG.trace(json);
+            this.collector.emit(tuple.getSourceStreamId(), tuple, new Values(json));
+        }
+        this.collector.ack(tuple);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        declarer.declareStream(TweetCleanBolt.TWEET_STREAM, new Fields(FIELD));
+        declarer.declareStream(TweetCleanBolt.GEO_STREAM,   new Fields(FIELD));
+    }
+}
@@ -15,14 +15,8 @@
  */
 package io.github.ognis1205.mutad.storm.bolts;
 
-import java.io.File;
-import java.net.URL;
-import java.nio.file.Paths;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
-import java.util.stream.Collectors;
-import com.bericotech.clavin.extractor.ApacheExtractor;
-import com.bericotech.clavin.gazetteer.query.LuceneGazetteer;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
@@ -30,60 +24,102 @@ import org.apache.storm.topology.base.BaseRichBolt;
 import org.apache.storm.tuple.Fields;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.github.ognis1205.mutad.storm.KafkaTweetSpoutBuilder;
 import io.github.ognis1205.mutad.storm.beans.Geo;
 import io.github.ognis1205.mutad.storm.beans.Tweet;
-import io.github.ognis1205.mutad.storm.mappers.Geo2JSON;
 import io.github.ognis1205.mutad.storm.mappers.JSON2Tweet;
+import io.github.ognis1205.mutad.storm.mappers.JSONBytes;
 import io.github.ognis1205.mutad.storm.mappers.Tweet2Geo;
-import io.github.ognis1205.mutad.storm.mappers.Tweet2JSON;
-import io.github.ognis1205.mutad.storm.utils.GeoParser;
-import io.github.ognis1205.mutad.storm.utils.impl.ClavinGeoParser;
+import io.github.ognis1205.mutad.storm.utils.TweetPreFilter;
 
 /**
+ * Bolt which parses, filters and cleans raw tweets. Cities mentioned in the texts are looked up
+ * downstream by `GeoEnrichBolt`.
  * @author Shingo OKAWA
  * @version 1.0.0
  */
 public class TweetCleanBolt extends BaseRichBolt {
+    /** Encodings of emitted tweets. */
+    public enum Encoding {
+        /** `Tweet` and `Geo` beans in `BEAN_FIELD`, to be encoded by `JsonEncodeBolt`. */
+        BEAN,
+        /** UTF-8 JSON bytes in `FIELD`, to be indexed by `EsBolt` as is. */
+        BYTES
+    }
+
     /** SL4J Logger. */
     private static final Logger LOG = LoggerFactory.getLogger(TweetCleanBolt.class);
 
     /** Field name. */
     public static final String FIELD = "json";
 
+    /** Field name. */
+    public static final String BEAN_FIELD = "bean";
+
     /** Stream name. */
     public static final String TWEET_STREAM = "tweet";
 
     /** Stream name. */
     public static final String GEO_STREAM = "geo";
 
+    /** Stream name of `Tweet` beans to be enriched by `GeoEnrichBolt` in `Encoding.BYTES`. */
+    public static final String ENRICH_STREAM = "enrich";
+
+    /** Languages accepted by default. */
+    public static final String[] DEFAULT_LANGS = {"en"};
+
     /** `OutputCollector` instance to expose the API for emitting tuples. */
-    private OutputCollector collector;
+    protected OutputCollector collector;
 
-    /** `GeoParser` instance to parse geo locations. */
-    private GeoParser parser;
+    /** `TweetPreFilter` instance to drop tuples before parsing them. */
+    private final TweetPreFilter filter;
+
+    /** Encoding of emitted tweets. */
+    private final Encoding encoding;
+
+    /** `JSONBytes` instance to encode tweets in `Encoding.BYTES`. */
+    private transient JSONBytes bytes;
+
+    /** `true` if `Tweet` beans are to be emitted to `ENRICH_STREAM`. */
+    private transient boolean enrich;
+
+    /**
+     * Instanciate `TweetCleanBolt` instance which accepts `DEFAULT_LANGS`.
+     */
+    public TweetCleanBolt() {
+        this(TweetCleanBolt.DEFAULT_LANGS);
+    }
+
+    /**
+     * Instanciate `TweetCleanBolt` instance.
+     * @param langs the accepted languages; every language is accepted if empty.
+     */
+    public TweetCleanBolt(String[] langs) {
+        this(langs, Encoding.BEAN);
+    }
+
+    /**
+     * Instanciate `TweetCleanBolt` instance.
+     * @param langs the accepted languages; every language is accepted if empty.
+     * @param encoding the encoding of emitted tweets.
+     */
+    public TweetCleanBolt(String[] langs, Encoding encoding) {
+        this.filter = new TweetPreFilter(langs);
+        this.encoding = encoding;
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     public void prepare(Map map, TopologyContext topologyContext, OutputCollector collector) {
-        try {
-            this.collector = collector;
-            URL url =new URL("file:///IndexDirectory");
-            File index = Paths.get(url.toURI()).toFile();
-            this.parser = new ClavinGeoParser(
-                    new ApacheExtractor(),
-                    new LuceneGazetteer(index),
-                    1,
-                    1,
-                    false);
-        } catch (Exception e) {
-            LOG.error("something bad happened", e);
-        }
+        this.collector = collector;
+        this.bytes = new JSONBytes();
+        this.enrich = this.encoding == Encoding.BYTES && !topologyContext.getThisTargets()
+                .getOrDefault(ENRICH_STREAM, Collections.emptyMap())
+                .isEmpty();
     }
 
     /**
@@ -91,47 +127,80 @@ public class TweetCleanBolt extends BaseRichBolt {
      */
     @Override
     public void execute(Tuple tuple) {
-        String json = tuple.getStringByField(KafkaTweetSpoutBuilder.FIELD);
-        if (json != null && !json.isEmpty()) {
-            Tweet tweet = JSON2Tweet.map(json);
-            if (tweet.getId() > -1 &&
-		!tweet.getText().isEmpty() &&
-		tweet.getLang().equals("en")) {
-	      JSONObject tweetJSON = Tweet2JSON.map(tweet);
-	      LOG.trace(tweetJSON.toString());
-	      this.collector.emit(TWEET_STREAM, tuple, new Values(tweetJSON));
-	      if (tweet.getGeo().getDefined()) {
-		Geo geo = Tweet2Geo.copy(tweet);
-		JSONObject geoJSON = Geo2JSON.map(geo);
-		LOG.trace(geoJSON.toString());
-		this.collector.emit(GEO_STREAM, tuple, new Values(geoJSON));
-	      }
-            }
+        Tweet tweet = this.map(tuple);
+        if (tweet != null) {
+            this.emit(tuple, tweet);
         }
-	this.collector.ack(tuple);
+        this.collector.ack(tuple);
     }
 
     /**
-     * {@inheritDoc}
+     * Parses and cleans a given tuple.
+     * @param tuple the tuple holding a raw tweet JSON, either `String` or UTF-8 `byte[]`.
+     * @return the cleaned tweet, or `null` if a given tuple is to be dropped.
      */
-    @Override
-    public void declareOutputFields(OutputFieldsDeclarer declarer) {
-        declarer.declareStream(TWEET_STREAM, new Fields(FIELD));
-        declarer.declareStream(GEO_STREAM,   new Fields(FIELD));
+    protected Tweet map(Tuple tuple) {
+        Object value = tuple.getValueByField(KafkaTweetSpoutBuilder.FIELD);
+        Tweet tweet;
+        try {
+            if (value instanceof byte[]) {
+                byte[] json = (byte[]) value;
+                if (json.length == 0 || !this.filter.test(json)) {
+                    return null;
+                }
+                tweet = JSON2Tweet.map(json);
+            } else {
+                String json = (String) value;
+                if (json == null || json.isEmpty() || !this.filter.test(json)) {
+                    return null;
+                }
+                tweet = JSON2Tweet.map(json);
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.debug("dropped malformed tweet", e);
+            return null;
+        }
+        if (tweet.getId() > -1 &&
+                !tweet.getText().isEmpty() &&
+                this.filter.accepts(tweet.getLang())) {
+            return tweet;
+        }
+        return null;
     }
 
     /**
-     * Parses a given `JSONObject` and converts it into a datum in Elasticsearch schema form.
-     * @return the corresponding datum form of a given data.
+     * Emits a given tweet, its geo location if defined and, if subscribed, its bean to be enriched,
+     * anchored to a given tuple.
+     * @param tuple the anchor tuple.
+     * @param tweet the tweet to be emitted.
      */
-    @Deprecated
-    private void parse(Tweet tweet) {
-        try {
-            List<GeoParser.Location> locs = this.parser.parse(tweet.getText());
-            tweet.setCityNames(locs.stream().map(l -> l.getName()).collect(Collectors.toList()));
-            tweet.setCityCoords(locs.stream().map(l -> l.getLonLat()).collect(Collectors.toList()));
-        } catch (Exception e) {
-            // Do nothing.
+    protected void emit(Tuple tuple, Tweet tweet) {
+        if (this.encoding == Encoding.BYTES) {
+            this.collector.emit(TWEET_STREAM, tuple, new Values(this.bytes.map(tweet)));
+            if (this.enrich) {
+                this.collector.emit(ENRICH_STREAM, tuple, new Values(tweet));
+            }
+        } else {
+            this.collector.emit(TWEET_STREAM, tuple, new Values(tweet));
+        }
+        if (tweet.getGeo().getDefined()) {
+            Geo geo = Tweet2Geo.copy(tweet);
+            if (this.encoding == Encoding.BYTES) {
+                this.collector.emit(GEO_STREAM, tuple, new Values(this.bytes.map(geo)));
+            } else {
+                this.collector.emit(GEO_STREAM, tuple, new Values(geo));
+            }
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        String field = this.encoding == Encoding.BYTES ? FIELD : BEAN_FIELD;
+        declarer.declareStream(TWEET_STREAM,  new Fields(field));
+        declarer.declareStream(GEO_STREAM,    new Fields(field));
+        declarer.declareStream(ENRICH_STREAM, new Fields(BEAN_FIELD));
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.groupings;
+
+import org.apache.storm.topology.BoltDeclarer;
+
+/**
+ * Stream groupings which may be chosen for each input stream of the topology.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public enum Grouping {
+    /** Distributes tuples evenly over every downstream task. */
+    SHUFFLE("shuffle"),
+
+    /** Distributes tuples over the downstream tasks of the same worker if any, avoiding network hops. */
+    LOCAL_OR_SHUFFLE("local-or-shuffle"),
+
+    /** Routes every tuple of a user to the same downstream task, see `UserGrouping`. */
+    USER("user");
+
+    /** Name on the command line. */
+    private final String name;
+
+    /** Constructor. */
+    Grouping(String name) {
+        this.name = name;
+    }
+
+    /** Getter. */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the grouping of a given name.
+     * @param name the name on the command line, e.g., `local-or-shuffle`.
+     * @return the grouping.
+     * @throws IllegalArgumentException if a given name is unknown.
+     */
+    public static Grouping of(String name) {
+        for (Grouping grouping : Grouping.values()) {
+            if (grouping.name.equals(name)) return grouping;
+        }
+        throw new IllegalArgumentException("unknown grouping: " + name);
+    }
+
+    /**
+     * Subscribes a given bolt to a given stream with this grouping.
+     * @param declarer the declarer of the subscribing bolt.
+     * @param component the id of the emitting component.
+     * @param stream the id of the stream.
+     * @return a given declarer.
+     */
+    public BoltDeclarer apply(BoltDeclarer declarer, String component, String stream) {
+        switch (this) {
+            case SHUFFLE:
+                return declarer.shuffleGrouping(component, stream);
+            case USER:
+                return declarer.customGrouping(component, stream, new UserGrouping());
+            default:
+                return declarer.localOrShuffleGrouping(component, stream);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.groupings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.grouping.CustomStreamGrouping;
+import org.apache.storm.task.WorkerTopologyContext;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+
+/**
+ * Fields grouping on the user id which works on the single-valued streams of the topology as is,
+ * i.e., `Tweet` and `Geo` beans, JSON documents holding `user_id` and raw tweets holding
+ * `user.screen_name`, so that no stream has to declare an extra field. Tuples without a user id
+ * are distributed in a round-robin manner.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class UserGrouping implements CustomStreamGrouping {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** JSON factory to look up user ids. */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /** Singleton lists of the target tasks, so that choosing a task allocates nothing. */
+    private transient List<List<Integer>> targets;
+
+    /** Index of the next target of tuples without a user id. */
+    private transient int next;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(WorkerTopologyContext context, GlobalStreamId stream, List<Integer> targetTasks) {
+        this.targets = new ArrayList<>(targetTasks.size());
+        for (Integer task : targetTasks) {
+            this.targets.add(Collections.singletonList(task));
+        }
+        this.next = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> chooseTasks(int taskId, List<Object> values) {
+        String user = values.isEmpty() ? null : UserGrouping.userId(values.get(0));
+        if (user == null || user.isEmpty()) {
+            this.next = this.next + 1 == this.targets.size() ? 0 : this.next + 1;
+            return this.targets.get(this.next);
+        }
+        return this.targets.get(Math.floorMod(user.hashCode(), this.targets.size()));
+    }
+
+    /**
+     * Returns the user id of a given value.
+     * @param value the value of a tuple.
+     * @return the user id, or `null` if unknown.
+     */
+    static String userId(Object value) {
+        if (value instanceof Tweet) {
+            return ((Tweet) value).getUserId();
+        } else if (value instanceof Geo) {
+            return ((Geo) value).getUserId();
+        }
+        try {
+            if (value instanceof byte[]) {
+                try (JsonParser parser = UserGrouping.JSON_FACTORY.createParser((byte[]) value)) {
+                    return UserGrouping.userId(parser);
+                }
+            } else if (value instanceof String) {
+                try (JsonParser parser = UserGrouping.JSON_FACTORY.createParser((String) value)) {
+                    return UserGrouping.userId(parser);
+                }
+            }
+        } catch (IOException e) {
+            // Malformed, fall through.
+        }
+        return null;
+    }
+
+    /**
+     * Returns the top-level `user_id`, or `user.screen_name`, of a JSON object read from a given parser.
+     * @param parser the parser positioned before a JSON object.
+     * @return the user id, or `null` if missing.
+     */
+    private static String userId(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals("user_id") && token == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            } else if (field.equals("user") && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && name.equals("screen_name")) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.github.ognis1205.mutad.storm.mappers;
 
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.json.JSONObject;
 import io.github.ognis1205.mutad.storm.beans.Geo;
 
@@ -23,6 +25,19 @@ import io.github.ognis1205.mutad.storm.beans.Geo;
  * @version 1.0.0
  */
 public class Geo2JSON {
+    /** Field holding the deterministic document id. */
+    public static final String ID_FIELD = "doc_id";
+
+    /**
+     * Returns the document id of `Geo`, i.e., the tweet id followed by the city name, which is
+     * stable across replays of the same tweet.
+     * @param geo `Geo` instance.
+     * @return the document id.
+     */
+    public static String docId(Geo geo) {
+        return geo.getId() + ":" + geo.getCityName();
+    }
+
     /**
      * Maps `Geo` to `JSONObject`.
      * @param geo `Geo` instance to be mapped.
@@ -33,6 +48,7 @@ public class Geo2JSON {
         JSONObject geoJson = new JSONObject();
         geoJson.put("lon", geo.getCityCoord().getLon());
         geoJson.put("lat", geo.getCityCoord().getLat());
+        json.put(Geo2JSON.ID_FIELD, Geo2JSON.docId(geo)   );
         json.put("id",         geo.getId()                );
         json.put("timestamp",  geo.getTimestamp()         );
         json.put("lang",       geo.getLang()              );
@@ -46,5 +62,30 @@ public class Geo2JSON {
         return json;
     }
 
+    /**
+     * Writes `Geo` as the same JSON object as `map` does, without building a tree.
+     * @param geo `Geo` instance to be written.
+     * @param generator the generator to write to.
+     * @throws IOException if the generator fails to write.
+     */
+    public static void write(Geo geo, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JSONBytes.writeField(generator, Geo2JSON.ID_FIELD, Geo2JSON.docId(geo));
+        JSONBytes.writeField(generator, "id",        geo.getId()       );
+        JSONBytes.writeField(generator, "timestamp", geo.getTimestamp());
+        JSONBytes.writeField(generator, "lang",      geo.getLang()     );
+        JSONBytes.writeField(generator, "user_name", geo.getUserName() );
+        JSONBytes.writeField(generator, "user_id",   geo.getUserId()   );
+        JSONBytes.writeField(generator, "image_url", geo.getImageUrl() );
+        JSONBytes.writeField(generator, "text",      geo.getText()     );
+        JSONBytes.writeField(generator, "hashtags",  geo.getHashtags() );
+        JSONBytes.writeField(generator, "city_name", geo.getCityName() );
+        generator.writeObjectFieldStart("city_coord");
+        generator.writeNumberField("lon", geo.getCityCoord().getLon());
+        generator.writeNumberField("lat", geo.getCityCoord().getLat());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
     private Geo2JSON() {}
 }
@@ -15,7 +15,12 @@
  */
 package io.github.ognis1205.mutad.storm.mappers;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import io.github.ognis1205.mutad.storm.beans.LonLat;
@@ -28,13 +33,213 @@ import io.github.ognis1205.mutad.storm.utils.Texts;
  * @version 1.0.0
  */
 public class JSON2Tweet {
+    /** Thread-safe factory of streaming parsers. */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
     /**
-     * Maps `String` to `Tweet`.
+     * Maps `String` to `Tweet`. Only the required fields are pulled from a streaming
+     * parser in a single pass; every other value is skipped without building a tree.
      * @param json `String` instance to be mapped.
      * @return `Tweet` instance.
+     * @throws IllegalArgumentException if a given JSON is malformed.
      */
     public static Tweet map(String json) {
-        return map(new JSONObject(json));
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return map(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed tweet: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps UTF-8 encoded JSON to `Tweet`, see `map(String)`.
+     * @param json UTF-8 encoded JSON to be mapped.
+     * @return `Tweet` instance.
+     * @throws IllegalArgumentException if a given JSON is malformed.
+     */
+    public static Tweet map(byte[] json) {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return map(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed tweet: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps a tweet object read from a given parser to `Tweet`.
+     * @param parser the parser positioned before a tweet object.
+     * @return `Tweet` instance.
+     */
+    private static Tweet map(JsonParser parser) throws IOException {
+        Tweet tweet = new Tweet();
+        tweet.setId(-1L);
+        tweet.setTimestamp(-1L);
+        tweet.setLang("");
+        tweet.setUserName("");
+        tweet.setUserId("");
+        tweet.setImageUrl("");
+        tweet.setText("");
+        tweet.setHashtags(new ArrayList<>());
+        tweet.setGeo(new LonLat());
+        tweet.setCityNames(new ArrayList<>());
+        tweet.setCityCoords(new ArrayList<>());
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("tweet is not an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "id":
+                    if (token == JsonToken.VALUE_NUMBER_INT) {
+                        tweet.setId(parser.getLongValue());
+                    } else if (token == JsonToken.VALUE_STRING) {
+                        tweet.setId(parseLong(parser.getText()));
+                    }
+                    break;
+                case "timestamp_ms":
+                    if (token == JsonToken.VALUE_STRING) {
+                        tweet.setTimestamp(parseLong(parser.getText()));
+                    }
+                    break;
+                case "lang":
+                    if (token == JsonToken.VALUE_STRING) {
+                        tweet.setLang(parser.getText());
+                    }
+                    break;
+                case "text":
+                    if (token == JsonToken.VALUE_STRING) {
+                        tweet.setText(Texts.clean(parser.getText()));
+                    }
+                    break;
+                case "user":
+                    if (token == JsonToken.START_OBJECT) {
+                        mapUser(parser, tweet);
+                    }
+                    break;
+                case "entities":
+                    if (token == JsonToken.START_OBJECT) {
+                        mapEntities(parser, tweet);
+                    }
+                    break;
+                case "coordinates":
+                    if (token == JsonToken.START_OBJECT) {
+                        mapCoordinates(parser, tweet);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            parser.skipChildren();
+        }
+        return tweet;
+    }
+
+    /**
+     * Maps the `user` object.
+     * @param parser the parser positioned at the start of a `user` object.
+     * @param tweet `Tweet` instance to be set.
+     */
+    private static void mapUser(JsonParser parser, Tweet tweet) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                switch (field) {
+                    case "name":
+                        tweet.setUserName(parser.getText());
+                        break;
+                    case "screen_name":
+                        tweet.setUserId(parser.getText());
+                        break;
+                    case "profile_image_url_https":
+                        tweet.setImageUrl(parser.getText());
+                        break;
+                    default:
+                        break;
+                }
+            }
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Maps the `entities` object; hashtags are set only if every hashtag has a text.
+     * @param parser the parser positioned at the start of an `entities` object.
+     * @param tweet `Tweet` instance to be set.
+     */
+    private static void mapEntities(JsonParser parser, Tweet tweet) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("hashtags")) {
+                List<String> tags = new ArrayList<>();
+                boolean valid = true;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    String tag = null;
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = parser.getCurrentName();
+                            if (parser.nextToken() == JsonToken.VALUE_STRING && name.equals("text")) {
+                                tag = parser.getText();
+                            }
+                            parser.skipChildren();
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    valid &= tag != null;
+                    tags.add(tag);
+                }
+                if (valid) {
+                    tweet.setHashtags(tags);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Maps the `coordinates` object, i.e., a GeoJSON point.
+     * @param parser the parser positioned at the start of a `coordinates` object.
+     * @param tweet `Tweet` instance to be set.
+     */
+    private static void mapCoordinates(JsonParser parser, Tweet tweet) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("coordinates")) {
+                double[] coords = new double[2];
+                int size = 0;
+                boolean valid = true;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isNumeric()) {
+                        if (size < coords.length) coords[size] = parser.getDoubleValue();
+                    } else {
+                        valid &= size >= coords.length;
+                        parser.skipChildren();
+                    }
+                    size++;
+                }
+                if (valid && size >= coords.length) {
+                    tweet.setGeo(new LonLat(coords[0], coords[1]));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parses a given decimal string, returning -1 if it is not a number.
+     * @param value the string to be parsed.
+     * @return the parsed value.
+     */
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
     }
 
     /**
@@ -82,7 +287,7 @@ public class JSON2Tweet {
         }
 
         try {
-            tweet.setText(Texts.removeEmoji(Texts.removeUrl(json.getString("text"))));
+            tweet.setText(Texts.clean(json.getString("text")));
         } catch (Exception e) {
             tweet.setText("");
         }
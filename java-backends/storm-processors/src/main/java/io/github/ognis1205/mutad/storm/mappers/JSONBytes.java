@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.mappers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+
+/**
+ * Writes `Tweet` and `Geo` as compact UTF-8 JSON through a streaming generator and a reused buffer,
+ * see `Tweet2JSON.write` and `Geo2JSON.write`. Instances are not thread-safe.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class JSONBytes {
+    /** Thread-safe factory of streaming generators. */
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /** Initial size of the buffer. */
+    private static final int INITIAL_SIZE = 2048;
+
+    /** Reused buffer. */
+    private final ByteArrayBuilder buffer = new ByteArrayBuilder(JSONBytes.INITIAL_SIZE);
+
+    /**
+     * Maps `Tweet` to UTF-8 JSON.
+     * @param tweet `Tweet` instance to be mapped.
+     * @return the JSON bytes.
+     */
+    public byte[] map(Tweet tweet) {
+        this.buffer.reset();
+        try (JsonGenerator generator = JSONBytes.FACTORY.createGenerator(this.buffer)) {
+            Tweet2JSON.write(tweet, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this.buffer.toByteArray();
+    }
+
+    /**
+     * Maps `Geo` to UTF-8 JSON.
+     * @param geo `Geo` instance to be mapped.
+     * @return the JSON bytes.
+     */
+    public byte[] map(Geo geo) {
+        this.buffer.reset();
+        try (JsonGenerator generator = JSONBytes.FACTORY.createGenerator(this.buffer)) {
+            Geo2JSON.write(geo, generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this.buffer.toByteArray();
+    }
+
+    /**
+     * Writes a number field, omitted if `null` as `JSONObject` does.
+     */
+    static void writeField(JsonGenerator generator, String name, Long value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    /**
+     * Writes a string field, omitted if `null` as `JSONObject` does.
+     */
+    static void writeField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Writes a string array field, omitted if `null` as `JSONObject` does.
+     */
+    static void writeField(JsonGenerator generator, String name, List<String> values) throws IOException {
+        if (values != null) {
+            generator.writeArrayFieldStart(name);
+            for (String value : values) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
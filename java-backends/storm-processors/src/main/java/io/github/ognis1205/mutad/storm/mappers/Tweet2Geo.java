@@ -33,6 +33,17 @@ public class Tweet2Geo {
      * @return `Geo` instance.
      */
     public static List<Geo> map(Tweet tweet) {
+        return Tweet2Geo.map(tweet, tweet.getCityNames(), tweet.getCityCoords());
+    }
+
+    /**
+     * Maps `Tweet` to a `Geo` per given city, leaving a given tweet untouched.
+     * @param tweet `Tweet` instance to be mapped.
+     * @param cityNames the names of the cities.
+     * @param cityCoords the lon/lat pairs of the cities.
+     * @return `Geo` instances.
+     */
+    public static List<Geo> map(Tweet tweet, List<String> cityNames, List<LonLat> cityCoords) {
         List<Geo> geos = new ArrayList<>();
 
         Long id = tweet.getId();
@@ -43,8 +54,6 @@ public class Tweet2Geo {
         String imageUrl = tweet.getImageUrl();
         String text     = tweet.getText();
         List<String> hashtags   = tweet.getHashtags();
-        List<String> cityNames  = tweet.getCityNames();
-        List<LonLat> cityCoords = tweet.getCityCoords();
 
         for (int i = 0; i < cityNames.size(); i++) {
             Geo geo = new Geo();
@@ -15,10 +15,13 @@
  */
 package io.github.ognis1205.mutad.storm.mappers;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.json.JSONObject;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
 import io.github.ognis1205.mutad.storm.beans.Tweet;
 
 
@@ -27,6 +30,9 @@ import io.github.ognis1205.mutad.storm.beans.Tweet;
  * @version 1.0.0
  */
 public class Tweet2JSON {
+    /** Field holding the deterministic document id, i.e., the tweet id. */
+    public static final String ID_FIELD = "id";
+
     /**
      * Maps `Tweet` to `JSONObject`.
      * @param tweet `Tweet` instance to be mapped.
@@ -69,5 +75,48 @@ public class Tweet2JSON {
         return json;
     }
 
+    /**
+     * Writes `Tweet` as the same JSON object as `map` does, without building a tree.
+     * @param tweet `Tweet` instance to be written.
+     * @param generator the generator to write to.
+     * @throws IOException if the generator fails to write.
+     */
+    public static void write(Tweet tweet, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        if (tweet.getCityCoords().size() > 0) {
+            generator.writeObjectFieldStart("city_coords");
+            generator.writeStringField("type", "multipoint");
+            generator.writeArrayFieldStart("coordinates");
+            for (LonLat l : tweet.getCityCoords()) {
+                generator.writeStartArray();
+                generator.writeNumber(l.getLon());
+                generator.writeNumber(l.getLat());
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        if (tweet.getGeo().getDefined()) {
+            generator.writeObjectFieldStart("geo");
+            generator.writeNumberField("lon", tweet.getGeo().getLon());
+            generator.writeNumberField("lat", tweet.getGeo().getLat());
+            generator.writeEndObject();
+        }
+
+        JSONBytes.writeField(generator, "id",         tweet.getId()       );
+        JSONBytes.writeField(generator, "timestamp",  tweet.getTimestamp());
+        JSONBytes.writeField(generator, "lang",       tweet.getLang()     );
+        JSONBytes.writeField(generator, "user_name",  tweet.getUserName() );
+        JSONBytes.writeField(generator, "user_id",    tweet.getUserId()   );
+        JSONBytes.writeField(generator, "image_url",  tweet.getImageUrl() );
+        JSONBytes.writeField(generator, "text",       tweet.getText()     );
+        JSONBytes.writeField(generator, "hashtags",   tweet.getHashtags() );
+        JSONBytes.writeField(generator, "city_names", tweet.getCityNames());
+
+        generator.writeEndObject();
+    }
+
     private Tweet2JSON() {}
 }
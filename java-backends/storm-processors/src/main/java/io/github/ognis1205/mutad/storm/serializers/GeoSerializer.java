@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+
+/**
+ * Kryo serializer for `Geo`, which writes the fields in declaration order with unboxed numbers.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class GeoSerializer extends Serializer<Geo> {
+    /** Flag set if the identifier is present. */
+    private static final int ID = 1;
+
+    /** Flag set if the timestamp is present. */
+    private static final int TIMESTAMP = 1 << 1;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output, Geo geo) {
+        int flags = 0;
+        if (geo.getId() != null) flags |= GeoSerializer.ID;
+        if (geo.getTimestamp() != null) flags |= GeoSerializer.TIMESTAMP;
+        output.writeByte(flags);
+        if (geo.getId() != null) output.writeLong(geo.getId());
+        if (geo.getTimestamp() != null) output.writeVarLong(geo.getTimestamp(), false);
+        output.writeString(geo.getLang());
+        output.writeString(geo.getUserName());
+        output.writeString(geo.getUserId());
+        output.writeString(geo.getImageUrl());
+        output.writeString(geo.getText());
+        Serializers.writeStrings(output, geo.getHashtags());
+        output.writeString(geo.getCityName());
+        kryo.writeObjectOrNull(output, geo.getCityCoord(), LonLat.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Geo read(Kryo kryo, Input input, Class<Geo> type) {
+        final int flags = input.readByte();
+        Geo geo = new Geo();
+        geo.setId((flags & GeoSerializer.ID) != 0 ? input.readLong() : null);
+        geo.setTimestamp((flags & GeoSerializer.TIMESTAMP) != 0 ? input.readVarLong(false) : null);
+        geo.setLang(input.readString());
+        geo.setUserName(input.readString());
+        geo.setUserId(input.readString());
+        geo.setImageUrl(input.readString());
+        geo.setText(input.readString());
+        geo.setHashtags(Serializers.readStrings(input));
+        geo.setCityName(input.readString());
+        geo.setCityCoord(kryo.readObjectOrNull(input, LonLat.class));
+        return geo;
+    }
+}
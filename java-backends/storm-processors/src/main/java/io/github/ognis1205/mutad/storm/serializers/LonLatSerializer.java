@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+
+/**
+ * Kryo serializer for `LonLat`, which writes a flag byte followed by the present coordinates.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class LonLatSerializer extends Serializer<LonLat> {
+    /** Flag set if the longitude is present. */
+    private static final int LON = 1;
+
+    /** Flag set if the latitude is present. */
+    private static final int LAT = 1 << 1;
+
+    /** Flag set if the definedness is present. */
+    private static final int DEFINED = 1 << 2;
+
+    /** Flag set if the coordinates are defined. */
+    private static final int DEFINED_VALUE = 1 << 3;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output, LonLat lonLat) {
+        int flags = 0;
+        if (lonLat.getLon() != null) flags |= LonLatSerializer.LON;
+        if (lonLat.getLat() != null) flags |= LonLatSerializer.LAT;
+        if (lonLat.getDefined() != null) {
+            flags |= LonLatSerializer.DEFINED;
+            if (lonLat.getDefined()) flags |= LonLatSerializer.DEFINED_VALUE;
+        }
+        output.writeByte(flags);
+        if (lonLat.getLon() != null) output.writeDouble(lonLat.getLon());
+        if (lonLat.getLat() != null) output.writeDouble(lonLat.getLat());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LonLat read(Kryo kryo, Input input, Class<LonLat> type) {
+        final int flags = input.readByte();
+        LonLat lonLat = new LonLat();
+        lonLat.setLon((flags & LonLatSerializer.LON) != 0 ? input.readDouble() : null);
+        lonLat.setLat((flags & LonLatSerializer.LAT) != 0 ? input.readDouble() : null);
+        lonLat.setDefined((flags & LonLatSerializer.DEFINED) != 0 ? (flags & LonLatSerializer.DEFINED_VALUE) != 0 : null);
+        return lonLat;
+    }
+}
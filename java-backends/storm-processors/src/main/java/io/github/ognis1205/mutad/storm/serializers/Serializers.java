@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+
+/**
+ * Helpers to write nullable fields of beans in compact forms.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+final class Serializers {
+    /**
+     * Writes a nullable list of strings, prefixed by its size plus one, or zero if `null`.
+     * @param output the output to be written.
+     * @param strings the strings to be written.
+     */
+    static void writeStrings(Output output, List<String> strings) {
+        if (strings == null) {
+            output.writeVarInt(0, true);
+            return;
+        }
+        output.writeVarInt(strings.size() + 1, true);
+        for (String string : strings) {
+            output.writeString(string);
+        }
+    }
+
+    /**
+     * Reads a nullable list of strings written by `writeStrings`.
+     * @param input the input to be read.
+     * @return the strings read.
+     */
+    static List<String> readStrings(Input input) {
+        final int size = input.readVarInt(true) - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(input.readString());
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a nullable list of `LonLat`, prefixed by its size plus one, or zero if `null`.
+     * @param kryo the Kryo instance.
+     * @param output the output to be written.
+     * @param lonLats the coordinates to be written.
+     */
+    static void writeLonLats(Kryo kryo, Output output, List<LonLat> lonLats) {
+        if (lonLats == null) {
+            output.writeVarInt(0, true);
+            return;
+        }
+        output.writeVarInt(lonLats.size() + 1, true);
+        for (LonLat lonLat : lonLats) {
+            kryo.writeObjectOrNull(output, lonLat, LonLat.class);
+        }
+    }
+
+    /**
+     * Reads a nullable list of `LonLat` written by `writeLonLats`.
+     * @param kryo the Kryo instance.
+     * @param input the input to be read.
+     * @return the coordinates read.
+     */
+    static List<LonLat> readLonLats(Kryo kryo, Input input) {
+        final int size = input.readVarInt(true) - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<LonLat> lonLats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lonLats.add(kryo.readObjectOrNull(input, LonLat.class));
+        }
+        return lonLats;
+    }
+
+    /** Constructor. */
+    private Serializers() {}
+}
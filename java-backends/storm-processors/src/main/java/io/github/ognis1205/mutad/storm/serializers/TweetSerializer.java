@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+
+/**
+ * Kryo serializer for `Tweet`, which writes the fields in declaration order with unboxed numbers.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class TweetSerializer extends Serializer<Tweet> {
+    /** Flag set if the identifier is present. */
+    private static final int ID = 1;
+
+    /** Flag set if the timestamp is present. */
+    private static final int TIMESTAMP = 1 << 1;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output, Tweet tweet) {
+        int flags = 0;
+        if (tweet.getId() != null) flags |= TweetSerializer.ID;
+        if (tweet.getTimestamp() != null) flags |= TweetSerializer.TIMESTAMP;
+        output.writeByte(flags);
+        if (tweet.getId() != null) output.writeLong(tweet.getId());
+        if (tweet.getTimestamp() != null) output.writeVarLong(tweet.getTimestamp(), false);
+        output.writeString(tweet.getLang());
+        output.writeString(tweet.getUserName());
+        output.writeString(tweet.getUserId());
+        output.writeString(tweet.getImageUrl());
+        output.writeString(tweet.getText());
+        Serializers.writeStrings(output, tweet.getHashtags());
+        kryo.writeObjectOrNull(output, tweet.getGeo(), LonLat.class);
+        Serializers.writeStrings(output, tweet.getCityNames());
+        Serializers.writeLonLats(kryo, output, tweet.getCityCoords());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tweet read(Kryo kryo, Input input, Class<Tweet> type) {
+        final int flags = input.readByte();
+        Tweet tweet = new Tweet();
+        tweet.setId((flags & TweetSerializer.ID) != 0 ? input.readLong() : null);
+        tweet.setTimestamp((flags & TweetSerializer.TIMESTAMP) != 0 ? input.readVarLong(false) : null);
+        tweet.setLang(input.readString());
+        tweet.setUserName(input.readString());
+        tweet.setUserId(input.readString());
+        tweet.setImageUrl(input.readString());
+        tweet.setText(input.readString());
+        tweet.setHashtags(Serializers.readStrings(input));
+        tweet.setGeo(kryo.readObjectOrNull(input, LonLat.class));
+        tweet.setCityNames(Serializers.readStrings(input));
+        tweet.setCityCoords(Serializers.readLonLats(kryo, input));
+        return tweet;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.spouts;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.storm.spout.ISpoutOutputCollector;
+import org.apache.storm.spout.SpoutOutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.IRichSpout;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spout wrapper which adapts the number of pending tuples of a delegate spout to the observed
+ * complete latency and failures, AIMD-style. The window grows additively while tuples complete within
+ * a target latency, and shrinks multiplicatively, at most once per target latency, whenever a tuple
+ * fails or the smoothed complete latency exceeds the target. `topology.max.spout.pending` remains
+ * the hard upper bound.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class AdaptivePendingSpout implements IRichSpout {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptivePendingSpout.class);
+
+    /** Factor applied to the window on congestion. */
+    private static final double DECREASE_FACTOR = 0.5D;
+
+    /** Weight of a new sample in the smoothed complete latency. */
+    private static final double LATENCY_WEIGHT = 0.05D;
+
+    /** Delegate spout. */
+    private final IRichSpout delegate;
+
+    /** Minimum number of pending tuples. */
+    private final int minPending;
+
+    /** Maximum number of pending tuples. */
+    private final int maxPending;
+
+    /** Target complete latency in nanoseconds. */
+    private final long targetLatency;
+
+    /** Emission times in nanoseconds of pending tuples keyed by message identifiers. */
+    private transient Map<Object, Long> pending;
+
+    /** Current number of pending tuples allowed. */
+    private transient int window;
+
+    /** Number of tuples acked since the window changed. */
+    private transient int acked;
+
+    /** Smoothed complete latency in nanoseconds. */
+    private transient double latency;
+
+    /** Time in nanoseconds at which the window shrank. */
+    private transient long decreased;
+
+    /**
+     * Instanciate `AdaptivePendingSpout` instance.
+     * @param delegate the spout whose pending tuples are controlled.
+     * @param minPending the minimum number of pending tuples, also the additive step.
+     * @param maxPending the maximum number of pending tuples.
+     * @param targetLatencyMs the target complete latency in milliseconds.
+     */
+    public AdaptivePendingSpout(IRichSpout delegate, int minPending, int maxPending, long targetLatencyMs) {
+        if (minPending < 1 || maxPending < minPending) {
+            throw new IllegalArgumentException("invalid pending range: [" + minPending + ", " + maxPending + "]");
+        }
+        this.delegate = delegate;
+        this.minPending = minPending;
+        this.maxPending = maxPending;
+        this.targetLatency = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open(Map conf, TopologyContext context, SpoutOutputCollector collector) {
+        this.pending = new HashMap<>();
+        this.window = this.minPending;
+        this.acked = 0;
+        this.latency = 0.0D;
+        this.decreased = System.nanoTime();
+        this.delegate.open(conf, context, new SpoutOutputCollector(new Collector(collector)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        this.delegate.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void activate() {
+        this.delegate.activate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deactivate() {
+        this.delegate.deactivate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nextTuple() {
+        if (this.pending.size() < this.window) {
+            this.delegate.nextTuple();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ack(Object msgId) {
+        Long emitted = this.pending.remove(msgId);
+        if (emitted != null) {
+            final long now = System.nanoTime();
+            this.latency += AdaptivePendingSpout.LATENCY_WEIGHT * ((now - emitted) - this.latency);
+            if (this.latency > this.targetLatency) {
+                this.decrease(now);
+            } else if (++this.acked >= this.window) {
+                this.increase();
+            }
+        }
+        this.delegate.ack(msgId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void fail(Object msgId) {
+        if (this.pending.remove(msgId) != null) {
+            this.decrease(System.nanoTime());
+        }
+        this.delegate.fail(msgId);
+    }
+
+    /**
+     * Grows the window additively.
+     */
+    private void increase() {
+        this.window = Math.min(this.window + this.minPending, this.maxPending);
+        this.acked = 0;
+        LOG.debug("increased pending window to {}", this.window);
+    }
+
+    /**
+     * Shrinks the window multiplicatively, unless it already shrank within the target latency.
+     * @param now the current time in nanoseconds.
+     */
+    private void decrease(long now) {
+        if (now - this.decreased < this.targetLatency) {
+            return;
+        }
+        this.window = Math.max((int) (this.window * AdaptivePendingSpout.DECREASE_FACTOR), this.minPending);
+        this.acked = 0;
+        this.decreased = now;
+        LOG.debug("decreased pending window to {}", this.window);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        this.delegate.declareOutputFields(declarer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        return this.delegate.getComponentConfiguration();
+    }
+
+    /** Collector which records the emission times of anchored tuples. */
+    private class Collector implements ISpoutOutputCollector {
+        /** Actual collector. */
+        private final SpoutOutputCollector collector;
+
+        /**
+         * Instanciate `Collector` instance.
+         * @param collector the actual collector.
+         */
+        Collector(SpoutOutputCollector collector) {
+            this.collector = collector;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Integer> emit(String streamId, List<Object> tuple, Object messageId) {
+            if (messageId != null) {
+                AdaptivePendingSpout.this.pending.put(messageId, System.nanoTime());
+            }
+            return this.collector.emit(streamId, tuple, messageId);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void emitDirect(int taskId, String streamId, List<Object> tuple, Object messageId) {
+            if (messageId != null) {
+                AdaptivePendingSpout.this.pending.put(messageId, System.nanoTime());
+            }
+            this.collector.emitDirect(taskId, streamId, tuple, messageId);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getPendingCount() {
+            return this.collector.getPendingCount();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush() {
+            this.collector.flush();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void reportError(Throwable error) {
+            this.collector.reportError(error);
+        }
+    }
+}
@@ -25,6 +25,66 @@ public class Texts {
             "((https?|ftp|gopher|telnet|file|Unsure|http):((//)|(\\\\))+[\\w\\d:#@%/;$()~_?\\+-=\\\\\\.&]*)",
             Pattern.CASE_INSENSITIVE);
 
+    /** URL schemes recognised by `clean`, in the order of `URL_PATTERN`. */
+    private static final String[] URL_SCHEMES = {"https", "http", "ftp", "gopher", "telnet", "file", "unsure"};
+
+    /** ASCII characters allowed in URLs, i.e., the character class of `URL_PATTERN`. */
+    private static final boolean[] URL_CHARS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) Texts.URL_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) Texts.URL_CHARS[c] = true;
+        for (char c = '+'; c <= '='; c++) Texts.URL_CHARS[c] = true;
+        for (char c : "_#@%$()~?\\&".toCharArray()) Texts.URL_CHARS[c] = true;
+    }
+
+    /**
+     * Sorted and disjoint code point ranges of emojis, as pairs of inclusive bounds. These are exactly the code
+     * points which form an emoji on their own, optionally followed by a variation selector, in emoji-java 5.1.1, so
+     * that symbols such as U+2605 BLACK STAR and U+2713 CHECK MARK are kept as `EmojiParser.removeAllEmojis` does.
+     */
+    private static final int[] EMOJI_RANGES = {
+        0x00A9,  0x00A9,  0x00AE,  0x00AE,  0x203C,  0x203C,  0x2049,  0x2049,
+        0x2122,  0x2122,  0x2139,  0x2139,  0x2194,  0x2199,  0x21A9,  0x21AA,
+        0x231A,  0x231B,  0x2328,  0x2328,  0x23E9,  0x23F3,  0x23F8,  0x23FA,
+        0x24C2,  0x24C2,  0x25AA,  0x25AB,  0x25B6,  0x25B6,  0x25C0,  0x25C0,
+        0x25FB,  0x25FE,  0x2600,  0x2604,  0x260E,  0x260E,  0x2611,  0x2611,
+        0x2614,  0x2615,  0x2618,  0x2618,  0x261D,  0x261D,  0x2620,  0x2620,
+        0x2622,  0x2623,  0x2626,  0x2626,  0x262A,  0x262A,  0x262E,  0x262F,
+        0x2638,  0x263A,  0x2648,  0x2653,  0x2660,  0x2660,  0x2663,  0x2663,
+        0x2665,  0x2666,  0x2668,  0x2668,  0x267B,  0x267B,  0x267F,  0x267F,
+        0x2692,  0x2697,  0x2699,  0x2699,  0x269B,  0x269C,  0x26A0,  0x26A1,
+        0x26AA,  0x26AB,  0x26B0,  0x26B1,  0x26BD,  0x26BE,  0x26C4,  0x26C5,
+        0x26C8,  0x26C8,  0x26CE,  0x26CF,  0x26D1,  0x26D1,  0x26D3,  0x26D4,
+        0x26E9,  0x26EA,  0x26F0,  0x26F5,  0x26F7,  0x26FA,  0x26FD,  0x26FD,
+        0x2702,  0x2702,  0x2705,  0x2705,  0x2708,  0x270D,  0x270F,  0x270F,
+        0x2712,  0x2712,  0x2714,  0x2714,  0x2716,  0x2716,  0x271D,  0x271D,
+        0x2721,  0x2721,  0x2728,  0x2728,  0x2733,  0x2734,  0x2744,  0x2744,
+        0x2747,  0x2747,  0x274C,  0x274C,  0x274E,  0x274E,  0x2753,  0x2755,
+        0x2757,  0x2757,  0x2763,  0x2764,  0x2795,  0x2797,  0x27A1,  0x27A1,
+        0x27B0,  0x27B0,  0x27BF,  0x27BF,  0x2934,  0x2935,  0x2B05,  0x2B07,
+        0x2B1B,  0x2B1C,  0x2B50,  0x2B50,  0x2B55,  0x2B55,  0x3030,  0x3030,
+        0x303D,  0x303D,  0x3297,  0x3297,  0x3299,  0x3299,  0x1F004, 0x1F004,
+        0x1F0CF, 0x1F0CF, 0x1F170, 0x1F171, 0x1F17E, 0x1F17F, 0x1F18E, 0x1F18E,
+        0x1F191, 0x1F19A, 0x1F1E6, 0x1F1FF, 0x1F201, 0x1F202, 0x1F21A, 0x1F21A,
+        0x1F22F, 0x1F22F, 0x1F232, 0x1F23A, 0x1F250, 0x1F251, 0x1F300, 0x1F321,
+        0x1F324, 0x1F393, 0x1F396, 0x1F397, 0x1F399, 0x1F39B, 0x1F39E, 0x1F3F0,
+        0x1F3F3, 0x1F3F5, 0x1F3F7, 0x1F3FA, 0x1F400, 0x1F4FD, 0x1F4FF, 0x1F53D,
+        0x1F549, 0x1F54E, 0x1F550, 0x1F567, 0x1F56F, 0x1F570, 0x1F573, 0x1F57A,
+        0x1F587, 0x1F587, 0x1F58A, 0x1F58D, 0x1F590, 0x1F590, 0x1F595, 0x1F596,
+        0x1F5A4, 0x1F5A5, 0x1F5A8, 0x1F5A8, 0x1F5B1, 0x1F5B2, 0x1F5BC, 0x1F5BC,
+        0x1F5C2, 0x1F5C4, 0x1F5D1, 0x1F5D3, 0x1F5DC, 0x1F5DE, 0x1F5E1, 0x1F5E1,
+        0x1F5E3, 0x1F5E3, 0x1F5E8, 0x1F5E8, 0x1F5EF, 0x1F5EF, 0x1F5F3, 0x1F5F3,
+        0x1F5FA, 0x1F64F, 0x1F680, 0x1F6C5, 0x1F6CB, 0x1F6D2, 0x1F6E0, 0x1F6E5,
+        0x1F6E9, 0x1F6E9, 0x1F6EB, 0x1F6EC, 0x1F6F0, 0x1F6F0, 0x1F6F3, 0x1F6F9,
+        0x1F910, 0x1F93A, 0x1F93C, 0x1F93E, 0x1F940, 0x1F945, 0x1F947, 0x1F970,
+        0x1F973, 0x1F976, 0x1F97A, 0x1F97A, 0x1F97C, 0x1F9A2, 0x1F9B4, 0x1F9B9,
+        0x1F9C0, 0x1F9C2, 0x1F9D0, 0x1F9FF
+    };
+
+    /** Code points which form an emoji only when followed by U+FE0F VARIATION SELECTOR-16, as pairs of inclusive bounds. */
+    private static final int[] EMOJI_PRESENTATION_RANGES = {0x265F, 0x265F, 0x267E, 0x267E};
+
     /**
      * Remove all appearances of URLs from the given string.
      * @param str string to be cleaned.
@@ -32,11 +92,10 @@ public class Texts {
      */
     public static String removeUrl(String str) {
         Matcher match = URL_PATTERN.matcher(str);
-        int i = 0;
-        while (match.find()) {
-            str = str.replaceAll(match.group(i++),"").trim();
+        if (!match.find()) {
+            return str;
         }
-        return str;
+        return match.replaceAll("").trim();
     }
 
     /**
@@ -48,6 +107,143 @@ public class Texts {
         return EmojiParser.removeAllEmojis(str);
     }
 
+    /**
+     * Remove all appearances of URLs and emojis from the given string in a single pass and trims it.
+     * Emojis are matched by code point ranges, along with keycap sequences and the variation selectors,
+     * skin tone modifiers, tags and zero width joined symbols following an emoji. The given string is
+     * returned as is if nothing is removed.
+     * @param str string to be cleaned.
+     * @return URLs and emojis removed string.
+     */
+    public static String clean(String str) {
+        final int length = str.length();
+        StringBuilder builder = null;
+        boolean emoji = false;
+        boolean joined = false;
+        int i = 0;
+        while (i < length) {
+            final int cp = str.codePointAt(i);
+            int end = i + Character.charCount(cp);
+            final int keycap = Texts.matchKeycap(str, i);
+            if (keycap > 0) {
+                emoji = true;
+                end = keycap;
+            } else if (Texts.isEmoji(str, i, cp) || (emoji && Texts.isEmojiComponent(cp, joined))) {
+                emoji = true;
+            } else {
+                emoji = false;
+                joined = false;
+                final int url = Texts.matchUrl(str, i);
+                if (url < 0) {
+                    if (builder != null) builder.appendCodePoint(cp);
+                    i = end;
+                    continue;
+                }
+                end = url;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(length);
+                builder.append(str, 0, i);
+            }
+            joined = emoji && cp == 0x200D;
+            i = end;
+        }
+        return builder == null ? str.trim() : builder.toString().trim();
+    }
+
+    /**
+     * Returns the end of a keycap sequence, e.g., `#` followed by an optional variation selector and
+     * U+20E3 COMBINING ENCLOSING KEYCAP, starting at a given index, or -1 if no keycap starts there.
+     * @param str string to be examined.
+     * @param begin the index to be examined.
+     * @return the ending index of a keycap sequence, exclusive.
+     */
+    private static int matchKeycap(String str, int begin) {
+        final char c = str.charAt(begin);
+        if (c != '#' && c != '*' && (c < '0' || c > '9')) return -1;
+        int i = begin + 1;
+        if (i < str.length() && str.charAt(i) == '\uFE0F') i++;
+        return i < str.length() && str.charAt(i) == '\u20E3' ? i + 1 : -1;
+    }
+
+    /**
+     * Returns the end of a URL starting at a given index, or -1 if no URL starts there.
+     * @param str string to be examined.
+     * @param begin the index to be examined.
+     * @return the ending index of a URL, exclusive.
+     */
+    private static int matchUrl(String str, int begin) {
+        for (String scheme : Texts.URL_SCHEMES) {
+            int i = begin + scheme.length();
+            if (str.regionMatches(true, begin, scheme, 0, scheme.length())
+                    && i + 1 < str.length()
+                    && str.charAt(i) == ':'
+                    && (str.charAt(i + 1) == '\\'
+                        || (str.charAt(i + 1) == '/' && i + 2 < str.length() && str.charAt(i + 2) == '/'))) {
+                for (i += 2; i < str.length(); i++) {
+                    final char c = str.charAt(i);
+                    if (c >= Texts.URL_CHARS.length || !Texts.URL_CHARS[c]) break;
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns `true` if a given code point at a given index is an emoji.
+     * @param str string to be examined.
+     * @param index the index of a given code point.
+     * @param cp code point to be examined.
+     * @return `true` if a given code point is an emoji.
+     */
+    private static boolean isEmoji(String str, int index, int cp) {
+        if (Texts.contains(Texts.EMOJI_RANGES, cp)) return true;
+        final int next = index + Character.charCount(cp);
+        return next < str.length()
+            && str.charAt(next) == '\uFE0F'
+            && Texts.contains(Texts.EMOJI_PRESENTATION_RANGES, cp);
+    }
+
+    /**
+     * Returns `true` if a given code point is in given ranges.
+     * @param ranges sorted and disjoint code point ranges, as pairs of inclusive bounds.
+     * @param cp code point to be examined.
+     * @return `true` if a given code point is in given ranges.
+     */
+    private static boolean contains(int[] ranges, int cp) {
+        if (cp < ranges[0]) return false;
+        int lo = 0;
+        int hi = ranges.length / 2 - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (cp < ranges[2 * mid]) {
+                hi = mid - 1;
+            } else if (cp > ranges[2 * mid + 1]) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns `true` if a given code point only makes sense as a part of an emoji sequence.
+     * @param cp code point to be examined.
+     * @param joined `true` if a given code point follows a zero width joiner.
+     * @return `true` if a given code point is a variation selector, a skin tone modifier, a tag, a zero width
+     *         joiner or a symbol joined with a zero width joiner, e.g., U+2640 FEMALE SIGN.
+     */
+    private static boolean isEmojiComponent(int cp, boolean joined) {
+        return cp == 0xFE0E
+            || cp == 0xFE0F
+            || cp == 0x200D
+            || (0x1F3FB <= cp && cp <= 0x1F3FF)
+            || (0xE0020 <= cp && cp <= 0xE007F)
+            || (joined && Character.getType(cp) == Character.OTHER_SYMBOL);
+    }
+
     /** Constructor. */
     private Texts() {}
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.utils;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cheap pre-filter which peeks at the top-level fields of a raw tweet JSON without parsing it,
+ * so that stream notices and tweets in non-target languages are dropped before the full parse.
+ * The filter is conservative: whatever it cannot decide on, e.g., malformed JSON, is accepted.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class TweetPreFilter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** View of UTF-8 bytes as characters, which is exact for the ASCII keys and languages peeked at. */
+    private static final class ByteSequence implements CharSequence {
+        /** Actual data. */
+        private final byte[] bytes;
+
+        /** Constructor. */
+        ByteSequence(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int length() {
+            return this.bytes.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public char charAt(int index) {
+            return (char) (this.bytes[index] & 0xFF);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return new ByteSequence(Arrays.copyOfRange(this.bytes, begin, end));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return new String(this.bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Top-level keys of the notices delivered along with tweets in the streaming API. */
+    private static final String[] NOTICES = {
+        "delete",
+        "limit",
+        "scrub_geo",
+        "status_withheld",
+        "user_withheld",
+        "disconnect",
+        "warning"
+    };
+
+    /** Top-level key of the language of a tweet. */
+    private static final String LANG = "lang";
+
+    /** Accepted languages, or `null` if every language is accepted. */
+    private final String[] langs;
+
+    /**
+     * Instanciates `TweetPreFilter` instance.
+     * @param langs the accepted languages, e.g., `en`; every language is accepted if empty.
+     */
+    public TweetPreFilter(String... langs) {
+        this.langs = langs.length == 0 ? null : Arrays.copyOf(langs, langs.length);
+    }
+
+    /**
+     * Returns `true` if a given language is accepted.
+     * @param lang the language of a tweet.
+     * @return `true` if a given language is accepted.
+     */
+    public boolean accepts(String lang) {
+        if (this.langs == null) return true;
+        for (String l : this.langs) {
+            if (l.equals(lang)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns `true` if a given raw JSON may be a tweet in one of the accepted languages.
+     * @param json the raw JSON.
+     * @return `false` if a given JSON is a notice or a tweet in a non-target language.
+     */
+    public boolean test(CharSequence json) {
+        final int length = json.length();
+        int depth = 0;
+        boolean key = false;
+        boolean lang = false;
+        for (int i = 0; i < length; i++) {
+            char c = json.charAt(i);
+            switch (c) {
+                case '"': {
+                    final int end = TweetPreFilter.skipString(json, i);
+                    if (end < 0) return true;
+                    if (depth == 1 && key) {
+                        if (TweetPreFilter.indexOf(TweetPreFilter.NOTICES, json, i + 1, end) >= 0) return false;
+                        lang = TweetPreFilter.equals(TweetPreFilter.LANG, json, i + 1, end);
+                        key = false;
+                    } else if (depth == 1 && lang) {
+                        return this.langs == null || TweetPreFilter.indexOf(this.langs, json, i + 1, end) >= 0
+                                || TweetPreFilter.indexOf(json, '\\', i + 1, end) >= 0;
+                    }
+                    i = end;
+                    break;
+                }
+                case '{':
+                case '[':
+                    if (depth == 0 && c != '{') return true;
+                    depth++;
+                    key = depth == 1;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) return this.accepts("");
+                    break;
+                case ',':
+                    key = depth == 1;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns `true` if a given raw UTF-8 JSON may be a tweet in one of the accepted languages. Bytes
+     * of multi-byte characters never equal to the ASCII delimiters, so they are scanned as is.
+     * @param json the raw JSON.
+     * @return `false` if a given JSON is a notice or a tweet in a non-target language.
+     */
+    public boolean test(byte[] json) {
+        return this.test(new ByteSequence(json));
+    }
+
+    /**
+     * Returns the index of the quote closing a string opening at a given index, or -1 if missing.
+     * @param json the raw JSON.
+     * @param begin the index of the opening quote.
+     * @return the index of the closing quote.
+     */
+    private static int skipString(CharSequence json, int begin) {
+        for (int i = begin + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first of given strings which equals to a given region, or -1 if none.
+     * @param strings the strings to be compared.
+     * @param json the raw JSON.
+     * @param begin the beginning index of the region, inclusive.
+     * @param end the ending index of the region, exclusive.
+     * @return the index of the matching string.
+     */
+    private static int indexOf(String[] strings, CharSequence json, int begin, int end) {
+        for (int i = 0; i < strings.length; i++) {
+            if (TweetPreFilter.equals(strings[i], json, begin, end)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of a given character in a given region, or -1 if missing.
+     * @param json the raw JSON.
+     * @param c the character to be searched.
+     * @param begin the beginning index of the region, inclusive.
+     * @param end the ending index of the region, exclusive.
+     * @return the index of a given character.
+     */
+    private static int indexOf(CharSequence json, char c, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (json.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns `true` if a given string equals to a given region.
+     * @param string the string to be compared.
+     * @param json the raw JSON.
+     * @param begin the beginning index of the region, inclusive.
+     * @param end the ending index of the region, exclusive.
+     * @return `true` if a given string equals to a given region.
+     */
+    private static boolean equals(String string, CharSequence json, int begin, int end) {
+        if (string.length() != end - begin) return false;
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) != json.charAt(begin + i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.utils.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.github.ognis1205.mutad.storm.utils.GeoParser;
+
+/**
+ * `GeoParser` which watches a directory for gazetteer files and swaps its dictionary
+ * without interrupting `parse`. Dictionary files written by `TrieGeoParser.save` are
+ * memory-mapped, world cities CSV files are built into a new dictionary; either way the
+ * new dictionary is prepared on a background thread and published atomically, so that
+ * the executor thread keeps parsing with the previous dictionary in the meantime.
+ * Files should be moved into the directory once completely written, as `GazetteerCompiler`
+ * does, otherwise a reload may see a partially written file and is skipped.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class ReloadableGeoParser implements GeoParser, Closeable {
+    /** SL4J Logger. */
+    private static final Logger LOG = LoggerFactory.getLogger(ReloadableGeoParser.class);
+
+    /** Extension of dictionary files. */
+    public static final String DICTIONARY_EXTENSION = ".dict";
+
+    /** Extension of world cities CSV files. */
+    public static final String CSV_EXTENSION = ".csv";
+
+    /** Period in milliseconds without further events after which a change is handled. */
+    private static final long QUIET_PERIOD = 500L;
+
+    /** The directory to be watched. */
+    private final Path directory;
+
+    /** The parser currently in use. */
+    private final AtomicReference<GeoParser> parser = new AtomicReference<>();
+
+    /** Watcher of the directory. */
+    private final WatchService watcher;
+
+    /** Thread reloading dictionaries. */
+    private final Thread thread;
+
+    /**
+     * Instanciate `ReloadableGeoParser` instance, loading the latest gazetteer file in a given directory.
+     * @param directory the directory to be watched.
+     */
+    public ReloadableGeoParser(Path directory) throws IOException {
+        this.directory = directory;
+        Path latest = this.latest();
+        if (latest != null) {
+            this.parser.set(ReloadableGeoParser.load(latest));
+        } else {
+            LOG.warn("no gazetteer found in {}", directory);
+        }
+        this.watcher = directory.getFileSystem().newWatchService();
+        directory.register(
+                this.watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "gazetteer-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns `true` if a given file is a gazetteer file.
+     * @param file the file to be checked.
+     */
+    private static boolean isGazetteer(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(DICTIONARY_EXTENSION) || name.endsWith(CSV_EXTENSION);
+    }
+
+    /**
+     * Loads a given gazetteer file.
+     * @param file the gazetteer file.
+     */
+    private static GeoParser load(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(DICTIONARY_EXTENSION)) {
+            return new TrieGeoParser(file);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return new TrieGeoParser(in);
+        }
+    }
+
+    /**
+     * Returns the most recently modified gazetteer file in the directory, if any.
+     */
+    private Path latest() throws IOException {
+        Path latest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                if (ReloadableGeoParser.isGazetteer(file)
+                        && Files.isRegularFile(file)
+                        && (latest == null
+                            || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(latest)) > 0)) {
+                    latest = file;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Reloads the latest gazetteer file, keeping the current dictionary on failures.
+     */
+    private void reload() {
+        try {
+            Path latest = this.latest();
+            if (latest != null) {
+                this.parser.set(ReloadableGeoParser.load(latest));
+                LOG.info("reloaded gazetteer from {}", latest);
+            }
+        } catch (Exception e) {
+            LOG.error("failed to reload gazetteer from " + this.directory, e);
+        }
+    }
+
+    /**
+     * Watches the directory until closed.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = this.watcher.take();
+                boolean changed = false;
+                // Waits for the quiet period, so that a burst of events causes a single reload.
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || ReloadableGeoParser.isGazetteer((Path) event.context());
+                    }
+                    if (!key.reset()) {
+                        LOG.warn("{} is no longer watched", this.directory);
+                        return;
+                    }
+                    key = this.watcher.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    this.reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Location> parse(String text) {
+        GeoParser current = this.parser.get();
+        return current == null ? new ArrayList<>() : current.parse(text);
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+    @Override
+    public void close() throws IOException {
+        this.thread.interrupt();
+        this.watcher.close();
+    }
+}
@@ -16,43 +16,56 @@
 package io.github.ognis1205.mutad.storm.utils.impl;
 
 import java.io.BufferedReader;
+import java.io.DataOutput;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import io.github.ognis1205.mutad.storm.beans.LonLat;
 import io.github.ognis1205.mutad.storm.utils.GeoParser;
 import io.github.ognis1205.util.nlang.trie.TrieSearcher;
 import io.github.ognis1205.util.nlang.dict.Dictionary;
+import io.github.ognis1205.util.nlang.dict.DictionarySerializer;
 import io.github.ognis1205.util.nlang.dict.Lexeme;
 
 /**
+ * `GeoParser` which finds city names in texts with a multi-pattern scan of a trie dictionary. Names
+ * are matched as whole words ignoring case, and only the leftmost-longest non-overlapping matches are
+ * kept, so that `New York` is not also taken for `York`. Cities sharing a name are resolved to the
+ * most populous one.
  * @author Shingo OKAWA
  * @version 1.0.0
  */
 public class TrieGeoParser implements GeoParser {
-    private static class City extends Lexeme<LonLat> {
+    private static class City extends Lexeme<Location> {
         /** City name. */
         private String name;
 
-        /** City geos. */
-        private List<LonLat> geos;
+        /** City geo. */
+        private LonLat geo;
 
-        /** Constructor. */
-        public City (List<String> line) {
-            this.name = line.get(0);
-            this.geos = new ArrayList<>();
-            this.geos.add(new LonLat(Double.parseDouble(line.get(2)), Double.parseDouble(line.get(1))));
-        }
+        /** City population, `0` if unknown. */
+        private double population;
 
-        /** Add another geo point. */
-        public void add(List<String> line) {
-            this.geos.add(new LonLat(Double.parseDouble(line.get(2)), Double.parseDouble(line.get(1))));
+        /** Constructor. */
+        public City (String[] line) {
+            this.name = line[0];
+            this.geo = new LonLat(Double.parseDouble(line[2]), Double.parseDouble(line[1]));
+            try {
+                this.population = Double.parseDouble(line[line.length - 1]);
+            } catch (NumberFormatException e) {
+                this.population = 0.0;
+            }
         }
 
         /** {@inheritDoc} */
@@ -63,95 +76,145 @@ public class TrieGeoParser implements GeoParser {
 
         /** {@inheritDoc} */
         @Override
-        public LonLat getValue() {
-            Double lat = 0.0;
-            Double lon = 0.0;
-            for (int i = 0; i < this.geos.size(); i++) {
-                lat += this.geos.get(i).getLat();
-                lon += this.geos.get(i).getLon();
-            }
-            return new LonLat(lon, lat);
+        public Location getValue() {
+            return new Location(this.name, this.geo);
         }
     }
 
     private static class Matcher implements TrieSearcher.Callback {
-        /** Text2Geo module reference. */
-        private TrieGeoParser parser;
-
         /** Text to be handled. */
         private String text;
 
-        /** Found citie so far. */
-        public Map<String, LonLat> found;
+        /** Whole-word matches found so far, i.e., triples of begin, end and id. */
+        public List<int[]> found;
 
         /** Constructor. */
-        public Matcher(TrieGeoParser parser, String text) {
-            this.parser = parser;
+        public Matcher(String text) {
             this.text = text;
-            this.found = new HashMap<>();
+            this.found = new ArrayList<>();
         }
 
-        /** Returns found matches as JSON. */
-        public List<String> getKeys() {
-            List<String> ret = new ArrayList<>();
-            for (String key : this.found.keySet()) ret.add(key);
-            return ret;
+        /** {@inheritDoc} */
+        @Override
+        public void apply(int begin, int offset, int id) {
+            if (this.isBoundary(begin - 1) && this.isBoundary(begin + offset)) {
+                this.found.add(new int[] {begin, begin + offset, id});
+            }
         }
 
-        /** Returns found matches as JSON. */
-        public List<LonLat> getValues() {
-            List<LonLat> ret = new ArrayList<>();
-            for (LonLat val : this.found.values()) ret.add(val);
+        /** Returns the ids of the leftmost-longest non-overlapping matches, in order of appearance. */
+        public List<Integer> select() {
+            this.found.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> -m[1]));
+            List<Integer> ret = new ArrayList<>();
+            int end = 0;
+            for (int[] m : this.found) {
+                if (m[0] >= end) {
+                    ret.add(m[2]);
+                    end = m[1];
+                }
+            }
             return ret;
         }
 
+        /** Returns `true` if a given position is out of the text or not within a word. */
+        private boolean isBoundary(int index) {
+            return index < 0 || index >= this.text.length() || !Character.isLetterOrDigit(this.text.charAt(index));
+        }
+    }
+
+    /**
+     * Leading byte of encoded values. Values of the former layout, which held no name, begin with
+     * a boolean instead, so that their files are rejected rather than misread.
+     */
+    private static final byte FORMAT = 2;
+
+    /** Codec to serialize city names and Lon/Lat pairs into a dictionary file. */
+    public static final DictionarySerializer.Codec<Location> CODEC = new DictionarySerializer.Codec<Location>() {
         /** {@inheritDoc} */
         @Override
-        public void apply(int begin, int offset, int id) {
-            this.found.put(this.text.substring(begin, begin + offset), this.parser.cities.get(id));
+        public void encode(Location value, DataOutput out) throws IOException {
+            byte[] name = value.getName().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TrieGeoParser.FORMAT);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeBoolean(value.getLonLat().getDefined());
+            out.writeDouble(value.getLonLat().getLon());
+            out.writeDouble(value.getLonLat().getLat());
         }
-    }
 
-    /** City names to Lon/Lat pairs. */
-    protected Dictionary<LonLat> cities;
+        /** {@inheritDoc} */
+        @Override
+        public Location decode(ByteBuffer in) {
+            if (in.get() != TrieGeoParser.FORMAT) {
+                throw new IllegalArgumentException("dictionary written by an older version, recompile it");
+            }
+            byte[] name = new byte[in.getInt()];
+            in.get(name);
+            LonLat value = new LonLat();
+            value.setDefined(in.get() != 0);
+            value.setLon(in.getDouble());
+            value.setLat(in.getDouble());
+            return new Location(new String(name, StandardCharsets.UTF_8), value);
+        }
+    };
 
-    /** Match found. */
-    private Matcher match;
+    /** City names to cities. */
+    protected Dictionary<Location> cities;
 
     /**
-     * Instanciate `TrieGeoParser` instance.
+     * Instanciate `TrieGeoParser` instance. The index is built on the common fork-join pool.
      * @param csv the path to world cities CSV file.
      */
     public TrieGeoParser(InputStream csv) throws IOException {
         Map<String, City> result = new HashMap<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(csv))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] values = line.split("\\s*,\\s*");
-                if (result.containsKey(values[0])) {
-                    result.get(values[0].toLowerCase(Locale.ROOT)).add(Arrays.asList(values));
-                } else {
-                    result.put(values[0].toLowerCase(Locale.ROOT), new City(Arrays.asList(values)));
+                City city = new City(line.split("\\s*,\\s*"));
+                City other = result.get(city.getKey());
+                if (other == null || city.population > other.population) {
+                    result.put(city.getKey(), city);
                 }
             }
         }
-        this.cities = new Dictionary<>(new ArrayList<>(result.values()), false);
+        this.cities = new Dictionary<>(new ArrayList<>(result.values()), false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instanciate `TrieGeoParser` instance from a dictionary file written by `save`.
+     * The file is memory-mapped, so that every worker on a host shares one copy.
+     * @param dictionary the path to the dictionary file.
+     */
+    public TrieGeoParser(Path dictionary) throws IOException {
+        try {
+            this.cities = DictionarySerializer.read(dictionary, CODEC);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(dictionary + ": " + e.getMessage(), e);
+        }
     }
 
     /**
-     * {@inheritDoc}
+     * Saves the city dictionary into a given file.
+     * @param dictionary the path to the dictionary file.
+     */
+    public void save(Path dictionary) throws IOException {
+        DictionarySerializer.write(this.cities, dictionary, CODEC);
+    }
+
+    /**
+     * Extracts the cities whose names appear as whole words in a given text, ignoring case.
+     * Each city is reported once under its name in the dictionary.
+     * @param text the text to be extracted.
      */
     @Override
     public List<Location> parse(String text) {
-        this.match = new Matcher(this, text);
-        for (int curr = 0; curr < text.length(); curr++) this.cities.prefix(text, curr++, match);
-        List<Location> ret = new ArrayList<>();
-        for (Map.Entry<String, LonLat> entry : this.match.found.entrySet()) {
-            ret.add(new Location(
-                    entry.getKey(),
-                    entry.getValue()));
+        Matcher match = new Matcher(text.toLowerCase(Locale.ROOT));
+        this.cities.scan(match.text, match);
+        Map<String, Location> found = new LinkedHashMap<>();
+        for (int id : match.select()) {
+            Location city = this.cities.get(id);
+            found.putIfAbsent(city.getName(), city);
         }
-        return ret;
+        return new ArrayList<>(found.values());
     }
 }
-
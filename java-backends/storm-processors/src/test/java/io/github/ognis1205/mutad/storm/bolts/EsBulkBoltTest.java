@@ -0,0 +1,287 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.bolts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.storm.Constants;
+import org.apache.storm.task.IOutputCollector;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.tuple.Tuple;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs `EsBulkBolt` against a stub Elasticsearch which answers each document of a bulk request
+ * according to the prefix of its id, i.e., `ok`, `conflict` (409), `bad` (400), `busy` (429 forever)
+ * or `busy-once` (429 on the first attempt only).
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class EsBulkBoltTest {
+    private static class Collector implements IOutputCollector {
+        public final List<String> acked = new CopyOnWriteArrayList<>();
+
+        public final List<String> failed = new CopyOnWriteArrayList<>();
+
+        public final List<String> deadLetters = new CopyOnWriteArrayList<>();
+
+        @Override
+        public List<Integer> emit(String streamId, Collection<Tuple> anchors, List<Object> tuple) {
+            if (EsBulkBolt.DEAD_LETTER_STREAM.equals(streamId)) {
+                this.deadLetters.add(new JSONObject((String) tuple.get(0)).getString("id"));
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void emitDirect(int taskId, String streamId, Collection<Tuple> anchors, List<Object> tuple) {}
+
+        @Override
+        public void ack(Tuple input) {
+            this.acked.add(id(input));
+        }
+
+        @Override
+        public void fail(Tuple input) {
+            this.failed.add(id(input));
+        }
+
+        @Override
+        public void resetTimeout(Tuple input) {}
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void reportError(Throwable error) {}
+
+        public int settled() {
+            return this.acked.size() + this.failed.size();
+        }
+    }
+
+    private static Tuple tuple(String component, String stream, Object value) {
+        return (Tuple) Proxy.newProxyInstance(
+                Tuple.class.getClassLoader(),
+                new Class<?>[] {Tuple.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSourceComponent": return component;
+                        case "getSourceStreamId":  return stream;
+                        case "getValue":           return value;
+                        case "hashCode":           return System.identityHashCode(proxy);
+                        case "equals":             return proxy == args[0];
+                        case "toString":           return String.valueOf(value);
+                        default:                   throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static Tuple doc(String id) {
+        return tuple("clean", "tweet", "{\"id\":\"" + id + "\",\"text\":\"hello\"}");
+    }
+
+    private static Tuple tick() {
+        return tuple(Constants.SYSTEM_COMPONENT_ID, Constants.SYSTEM_TICK_STREAM_ID, null);
+    }
+
+    private static String id(Tuple tuple) {
+        return new JSONObject((String) tuple.getValue(0)).getString("id");
+    }
+
+    private HttpServer server;
+
+    private final List<Integer> bulkSizes = new CopyOnWriteArrayList<>();
+
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    private Collector collector;
+
+    private EsBulkBolt bolt;
+
+    private JSONObject item(String id) {
+        int attempt = this.attempts.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+        JSONObject result = new JSONObject()
+                .put("_index", "tweet")
+                .put("_type", "_doc")
+                .put("_id", id);
+        int status = 201;
+        if (id.startsWith("conflict")) {
+            status = 409;
+        } else if (id.startsWith("bad")) {
+            status = 400;
+        } else if (id.startsWith("busy-once") ? attempt == 1 : id.startsWith("busy")) {
+            status = 429;
+        }
+        if (status == 201) {
+            result.put("_version", 1)
+                    .put("result", "created")
+                    .put("_shards", new JSONObject().put("total", 1).put("successful", 1).put("failed", 0))
+                    .put("_seq_no", 0)
+                    .put("_primary_term", 1);
+        } else {
+            result.put("error", new JSONObject().put("type", "stub_exception").put("reason", "status " + status));
+        }
+        return new JSONObject().put("create", result.put("status", status));
+    }
+
+    private void bulk(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0;) body.write(buffer, 0, n);
+        }
+        JSONArray items = new JSONArray();
+        boolean errors = false;
+        String[] lines = new String(body.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        for (int i = 0; i + 1 < lines.length; i += 2) {
+            JSONObject item = this.item(new JSONObject(lines[i + 1]).getString("id"));
+            errors |= item.getJSONObject("create").getInt("status") >= 300;
+            items.put(item);
+        }
+        this.bulkSizes.add(items.length());
+        byte[] response = new JSONObject()
+                .put("took", 1)
+                .put("errors", errors)
+                .put("items", items)
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private void prepare(int bulkActions, int retryCount) {
+        this.bolt = new EsBulkBolt(
+                "localhost:" + this.server.getAddress().getPort(),
+                "tweet",
+                bulkActions,
+                "1mb",
+                0,
+                1,
+                retryCount,
+                "10ms",
+                "id");
+        this.collector = new Collector();
+        this.bolt.prepare(new HashMap<>(), null, new OutputCollector(this.collector));
+    }
+
+    private void awaitSettled(int tuples) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (this.collector.settled() < tuples && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+            this.bolt.execute(tick());
+        }
+        assertEquals(tuples, this.collector.settled());
+    }
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/_bulk", exchange -> {
+            try {
+                this.bulk(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        this.server.start();
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (this.bolt != null) {
+            this.bolt.cleanup();
+        }
+        this.server.stop(0);
+    }
+
+    @Test
+    void testItemOutcomes() throws InterruptedException {
+        this.prepare(4, 3);
+        for (String id : new String[] {"ok-1", "conflict-1", "bad-1", "busy-1"}) {
+            this.bolt.execute(doc(id));
+        }
+        this.awaitSettled(4);
+        assertEquals(Collections.singletonList(4), this.bulkSizes);
+        assertTrue(this.collector.acked.containsAll(Arrays.asList("ok-1", "conflict-1", "bad-1")));
+        assertEquals(Collections.singletonList("busy-1"), this.collector.failed);
+        assertEquals(Collections.singletonList("bad-1"), this.collector.deadLetters);
+    }
+
+    @Test
+    void testRetryRound() throws InterruptedException {
+        this.prepare(4, 3);
+        for (String id : new String[] {"ok-1", "busy-once-1", "ok-2", "busy-once-2"}) {
+            this.bolt.execute(doc(id));
+        }
+        this.awaitSettled(4);
+        assertEquals(Arrays.asList(4, 2), this.bulkSizes);
+        assertEquals(4, this.collector.acked.size());
+        assertTrue(this.collector.acked.containsAll(Arrays.asList("ok-1", "busy-once-1", "ok-2", "busy-once-2")));
+        assertTrue(this.collector.failed.isEmpty());
+        assertTrue(this.collector.deadLetters.isEmpty());
+    }
+
+    @Test
+    void testRetriesExhausted() throws InterruptedException {
+        this.prepare(4, 1);
+        for (String id : new String[] {"busy-1", "ok-1", "busy-2", "busy-once-1"}) {
+            this.bolt.execute(doc(id));
+        }
+        this.awaitSettled(4);
+        assertEquals(Arrays.asList(4, 3), this.bulkSizes);
+        assertEquals(2, this.collector.acked.size());
+        assertTrue(this.collector.acked.containsAll(Arrays.asList("ok-1", "busy-once-1")));
+        assertEquals(2, this.collector.failed.size());
+        assertTrue(this.collector.failed.containsAll(Arrays.asList("busy-1", "busy-2")));
+    }
+
+    @Test
+    void testPartialBulkFlushedOnTick() throws InterruptedException {
+        this.prepare(100, 3);
+        this.bolt.execute(doc("ok-1"));
+        this.bolt.execute(doc("ok-2"));
+        this.awaitSettled(2);
+        assertEquals(Collections.singletonList(2), this.bulkSizes);
+        assertEquals(2, this.collector.acked.size());
+    }
+}
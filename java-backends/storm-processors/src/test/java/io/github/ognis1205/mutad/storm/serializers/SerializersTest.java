@@ -0,0 +1,211 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.serializers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.github.ognis1205.mutad.storm.beans.Geo;
+import io.github.ognis1205.mutad.storm.beans.LonLat;
+import io.github.ognis1205.mutad.storm.beans.Tweet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips of `Tweet`, `Geo` and `LonLat` through the hand-written Kryo serializers, as
+ * registered by `ProcessorTopology`.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class SerializersTest {
+    private static final int SENTINEL = 0x4D545444;
+
+    private Kryo kryo;
+
+    @BeforeEach
+    void setUp() {
+        this.kryo = new Kryo();
+        this.kryo.register(Geo.class, new GeoSerializer());
+        this.kryo.register(LonLat.class, new LonLatSerializer());
+        this.kryo.register(Tweet.class, new TweetSerializer());
+    }
+
+    private static LonLat lonLat(Double lon, Double lat, Boolean defined) {
+        LonLat lonLat = new LonLat();
+        lonLat.setLon(lon);
+        lonLat.setLat(lat);
+        lonLat.setDefined(defined);
+        return lonLat;
+    }
+
+    private static Tweet tweet() {
+        Tweet tweet = new Tweet();
+        tweet.setId(1405134123456789012L);
+        tweet.setTimestamp(1623801600000L);
+        tweet.setLang("en");
+        tweet.setUserName("ognis1205");
+        tweet.setUserId("123456789");
+        tweet.setImageUrl("https://example.com/a.png");
+        tweet.setText("Just landed in New York ✈");
+        tweet.setHashtags(Arrays.asList("travel", "nyc"));
+        tweet.setGeo(new LonLat(-73.9249, 40.6943));
+        tweet.setCityNames(Collections.singletonList("New York"));
+        tweet.setCityCoords(Collections.singletonList(new LonLat(-73.9249, 40.6943)));
+        return tweet;
+    }
+
+    private static Geo geo() {
+        Geo geo = new Geo();
+        geo.setId(1405134123456789012L);
+        geo.setTimestamp(1623801600000L);
+        geo.setLang("en");
+        geo.setUserName("ognis1205");
+        geo.setUserId("123456789");
+        geo.setImageUrl("https://example.com/a.png");
+        geo.setText("Just landed in New York ✈");
+        geo.setHashtags(Arrays.asList("travel", "nyc"));
+        geo.setCityName("New York");
+        geo.setCityCoord(new LonLat(-73.9249, 40.6943));
+        return geo;
+    }
+
+    private <T> T roundTrip(T object, Class<T> type) {
+        Output output = new Output(256, -1);
+        this.kryo.writeObject(output, object);
+        output.writeInt(SENTINEL);
+        Input input = new Input(output.toBytes());
+        T actual = this.kryo.readObject(input, type);
+        assertEquals(SENTINEL, input.readInt(), "misaligned read");
+        assertTrue(input.eof());
+        return actual;
+    }
+
+    private void assertLonLatEquals(LonLat expected, LonLat actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.getLon(), actual.getLon());
+        assertEquals(expected.getLat(), actual.getLat());
+        assertEquals(expected.getDefined(), actual.getDefined());
+    }
+
+    private void assertLonLatsEqual(List<LonLat> expected, List<LonLat> actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            this.assertLonLatEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private void assertTweetEquals(Tweet expected, Tweet actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getLang(), actual.getLang());
+        assertEquals(expected.getUserName(), actual.getUserName());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getImageUrl(), actual.getImageUrl());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getHashtags(), actual.getHashtags());
+        this.assertLonLatEquals(expected.getGeo(), actual.getGeo());
+        assertEquals(expected.getCityNames(), actual.getCityNames());
+        this.assertLonLatsEqual(expected.getCityCoords(), actual.getCityCoords());
+    }
+
+    private void assertGeoEquals(Geo expected, Geo actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getLang(), actual.getLang());
+        assertEquals(expected.getUserName(), actual.getUserName());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getImageUrl(), actual.getImageUrl());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getHashtags(), actual.getHashtags());
+        assertEquals(expected.getCityName(), actual.getCityName());
+        this.assertLonLatEquals(expected.getCityCoord(), actual.getCityCoord());
+    }
+
+    @Test
+    void testTweet() {
+        Tweet tweet = SerializersTest.tweet();
+        this.assertTweetEquals(tweet, this.roundTrip(tweet, Tweet.class));
+        tweet.setTimestamp(-1L);
+        tweet.setId(Long.MIN_VALUE);
+        this.assertTweetEquals(tweet, this.roundTrip(tweet, Tweet.class));
+    }
+
+    @Test
+    void testTweetOfNulls() {
+        Tweet tweet = new Tweet();
+        Tweet actual = this.roundTrip(tweet, Tweet.class);
+        this.assertTweetEquals(tweet, actual);
+        assertNull(actual.getId());
+        assertNull(actual.getTimestamp());
+        assertNull(actual.getHashtags());
+        assertNull(actual.getGeo());
+        assertNull(actual.getCityNames());
+        assertNull(actual.getCityCoords());
+    }
+
+    @Test
+    void testTweetOfNullElements() {
+        Tweet tweet = SerializersTest.tweet();
+        tweet.setId(null);
+        tweet.setHashtags(Arrays.asList("a", null, ""));
+        tweet.setCityNames(Arrays.asList(null, "York"));
+        tweet.setCityCoords(Arrays.asList(null, new LonLat(-1.08, 53.9704), null));
+        this.assertTweetEquals(tweet, this.roundTrip(tweet, Tweet.class));
+        tweet.setTimestamp(null);
+        tweet.setHashtags(Collections.emptyList());
+        tweet.setCityNames(Collections.emptyList());
+        tweet.setCityCoords(Collections.emptyList());
+        this.assertTweetEquals(tweet, this.roundTrip(tweet, Tweet.class));
+    }
+
+    @Test
+    void testGeo() {
+        Geo geo = SerializersTest.geo();
+        this.assertGeoEquals(geo, this.roundTrip(geo, Geo.class));
+        geo.setId(null);
+        geo.setHashtags(Arrays.asList(null, "nyc"));
+        geo.setCityCoord(SerializersTest.lonLat(1.0, 2.0, null));
+        this.assertGeoEquals(geo, this.roundTrip(geo, Geo.class));
+        Geo empty = new Geo();
+        this.assertGeoEquals(empty, this.roundTrip(empty, Geo.class));
+    }
+
+    @Test
+    void testLonLat() {
+        for (LonLat lonLat : Arrays.asList(
+                new LonLat(),
+                new LonLat(-73.9249, 40.6943),
+                SerializersTest.lonLat(-0.0, Double.NaN, false),
+                SerializersTest.lonLat(null, null, null),
+                SerializersTest.lonLat(139.7514, null, null),
+                SerializersTest.lonLat(null, 35.685, true))) {
+            this.assertLonLatEquals(lonLat, this.roundTrip(lonLat, LonLat.class));
+        }
+    }
+}
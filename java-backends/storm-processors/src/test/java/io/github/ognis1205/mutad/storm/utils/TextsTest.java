@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.utils;
+
+import com.vdurmont.emoji.Emoji;
+import com.vdurmont.emoji.EmojiManager;
+import com.vdurmont.emoji.EmojiParser;
+import com.vdurmont.emoji.Fitzpatrick;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class TextsTest {
+    /** Symbols which are not emojis, including ones which have emoji variants, and emoji look-alikes. */
+    private static final String[] SYMBOLS = {
+        "★", "☆", "✓", "✗", "♂", "♀", "♪", "♫", "♭", "☐", "☒", "✦", "❖", "➔", "→", "←", "↑", "↓",
+        "•", "…", "‰", "€", "£", "¥", "°", "±", "§", "¶", "†", "‡", "©", "®", "™", "ℹ", "↔", "▶",
+        "♟", "♾", "♟︎", "♾︎", "#", "*", "1", "#1", "１", "＃", "ｈｔｔｐ", "日本語", "🀀", "🂡"
+    };
+
+    private static String removeAllEmojis(String text) {
+        return EmojiParser.removeAllEmojis(text).trim();
+    }
+
+    @Test
+    void testSymbols() {
+        for (String symbol : SYMBOLS) {
+            String text = "a " + symbol + " b";
+            assertEquals(removeAllEmojis(text), Texts.clean(text), text);
+        }
+        assertEquals(Texts.clean("★ 5 stars ✓"), "★ 5 stars ✓");
+        assertEquals(Texts.clean("Price™ ©2021"), "Price 2021");
+    }
+
+    @Test
+    void testEmojis() {
+        for (Emoji emoji : EmojiManager.getAll()) {
+            // emoji-java 5.1.1 prefixes the pirate flag with U+267E by mistake, which is kept by `clean`.
+            if (emoji.getUnicode().startsWith("♾🏴")) {
+                assertEquals(Texts.clean("a " + emoji.getUnicode() + " b"), "a ♾ b");
+                continue;
+            }
+            String text = "a " + emoji.getUnicode() + " b";
+            assertEquals(removeAllEmojis(text), Texts.clean(text), text);
+            text = "a" + emoji.getUnicode() + emoji.getUnicode() + "b";
+            assertEquals(removeAllEmojis(text), Texts.clean(text), text);
+            if (emoji.supportsFitzpatrick()) {
+                for (Fitzpatrick fitzpatrick : Fitzpatrick.values()) {
+                    text = "a " + emoji.getUnicode(fitzpatrick) + " b";
+                    assertEquals(removeAllEmojis(text), Texts.clean(text), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEmojiSequences() {
+        assertEquals(Texts.clean("a 👨‍👩‍👧 b"), "a  b");
+        assertEquals(Texts.clean("a 🏳️‍🌈 b"), "a  b");
+        assertEquals(Texts.clean("a 🇯🇵 b"), "a  b");
+        assertEquals(Texts.clean("a 🏴󠁧󠁢󠁳󠁣󠁴󠁿 b"), "a  b");
+        assertEquals(Texts.clean("a ♾️ b"), "a  b");
+        // Keycaps are removed with or without a variation selector, whereas emoji-java removes only the latter.
+        assertEquals(Texts.clean("a #⃣ b"), "a  b");
+        assertEquals(Texts.clean("a #️⃣ 1️⃣ *️⃣ b"), "a    b");
+        // Variation selectors and zero width joiners left dangling after an emoji are removed, whereas emoji-java keeps them.
+        assertEquals(Texts.clean("a 😀‍ b"), "a  b");
+        assertEquals(Texts.clean("a 😀️ b"), "a  b");
+        assertEquals(Texts.clean("a ☺︎ b"), "a  b");
+        assertEquals(Texts.clean("a ‍️ b"), "a ‍️ b");
+    }
+
+    @Test
+    void testUrls() {
+        assertEquals(Texts.clean("see https://t.co/abc😀 now"), "see  now");
+        assertEquals(Texts.clean("😀 http://example.com"), "");
+        assertEquals(Texts.clean("no url here"), "no url here");
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.mutad.storm.utils.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import io.github.ognis1205.mutad.storm.utils.GeoParser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public class TrieGeoParserTest {
+    private static final String CSV = String.join("\n",
+            "New York,40.6943,-73.9249,United States,19354922",
+            "Rio de Janeiro,-22.925,-43.225,Brazil,11748000",
+            "Reading,51.47,-0.98,United Kingdom,369804",
+            "Reading,40.34,-75.9266,United States,267300",
+            "York,39.9651,-76.7315,United States,234245",
+            "York,53.9704,-1.08,United Kingdom,158947",
+            "Brooklyn,40.6501,-73.9496,United States,2629150",
+            "Seoul,37.5663,126.9997,\"Korea, South\",9796000");
+
+    @TempDir
+    Path temp;
+
+    private static TrieGeoParser parser() throws IOException {
+        return new TrieGeoParser(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> names(List<GeoParser.Location> locs) {
+        List<String> ret = new ArrayList<>();
+        for (GeoParser.Location loc : locs) ret.add(loc.getName());
+        return ret;
+    }
+
+    private static GeoParser.Location only(List<GeoParser.Location> locs) {
+        assertEquals(1, locs.size());
+        return locs.get(0);
+    }
+
+    @Test
+    void testLeftmostLongest() throws IOException {
+        TrieGeoParser parser = TrieGeoParserTest.parser();
+        assertEquals(
+                Arrays.asList("New York", "Brooklyn"),
+                names(parser.parse("Just landed in New York, heading to Brooklyn...")));
+        assertEquals(
+                Arrays.asList("New York", "York"),
+                names(parser.parse("NEW YORK, new york and york")));
+        assertEquals(Collections.emptyList(), names(parser.parse("Yorkshire and Readings")));
+    }
+
+    @Test
+    void testCanonicalNames() throws IOException {
+        TrieGeoParser parser = TrieGeoParserTest.parser();
+        assertEquals(Collections.singletonList("Rio de Janeiro"), names(parser.parse("RIO DE JANEIRO!")));
+        assertEquals(Collections.singletonList("Seoul"), names(parser.parse("seoul")));
+    }
+
+    @Test
+    void testMostPopulousOfSameName() throws IOException {
+        TrieGeoParser parser = TrieGeoParserTest.parser();
+        GeoParser.Location york = only(parser.parse("York"));
+        assertEquals(-76.7315, york.getLonLat().getLon(), 1e-9);
+        assertEquals(39.9651, york.getLonLat().getLat(), 1e-9);
+        GeoParser.Location reading = only(parser.parse("Reading"));
+        assertEquals(-0.98, reading.getLonLat().getLon(), 1e-9);
+        assertEquals(51.47, reading.getLonLat().getLat(), 1e-9);
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        Path dictionary = this.temp.resolve("cities.dict");
+        TrieGeoParserTest.parser().save(dictionary);
+        TrieGeoParser parser = new TrieGeoParser(dictionary);
+        GeoParser.Location rio = only(parser.parse("Rio de Janeiro"));
+        assertEquals("Rio de Janeiro", rio.getName());
+        assertEquals(-43.225, rio.getLonLat().getLon(), 1e-9);
+        assertEquals(-22.925, rio.getLonLat().getLat(), 1e-9);
+        assertEquals(Arrays.asList("New York", "Reading"), names(parser.parse("New York or Reading")));
+    }
+}
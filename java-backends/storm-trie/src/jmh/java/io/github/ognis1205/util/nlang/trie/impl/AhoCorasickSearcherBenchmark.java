@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.ognis1205.util.nlang.trie.TrieSearcher;
+
+/**
+ * Compares a single `AhoCorasickSearcher` pass against common prefix searches from every offset of a text.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AhoCorasickSearcherBenchmark {
+    /** The number of texts per invocation. */
+    private static final int TEXTS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int keySetSize;
+
+    @Param({"CITIES", "SHORT", "LONG"})
+    public Corpus.Distribution keyLength;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double hitRatio;
+
+    private DoubleArraySearcher searcher;
+
+    private AhoCorasickSearcher scanner;
+
+    private String[] texts;
+
+    private int matches;
+
+    private final TrieSearcher.Callback counter = (begin, offset, id) -> this.matches++;
+
+    @Setup
+    public void setup() {
+        List<String> keys = Corpus.keys(this.keySetSize, this.keyLength);
+        DoubleArray doubleArray = DoubleArrayBuilder.build(Corpus.entries(keys), true, id -> {});
+        this.searcher = new DoubleArraySearcher(doubleArray);
+        this.scanner = new AhoCorasickSearcher(doubleArray);
+        this.texts = Corpus.texts(Corpus.queries(keys, AhoCorasickSearcherBenchmark.TEXTS, this.hitRatio));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AhoCorasickSearcherBenchmark.TEXTS)
+    public int eachMatch() {
+        this.matches = 0;
+        for (String text : this.texts) {
+            this.scanner.eachMatch(text, 0, this.counter);
+        }
+        return this.matches;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AhoCorasickSearcherBenchmark.TEXTS)
+    public int eachCommonPrefixFromEveryOffset() {
+        this.matches = 0;
+        for (String text : this.texts) {
+            for (int curr = 0; curr < text.length(); curr++) {
+                this.searcher.eachCommonPrefix(text, curr, this.counter);
+            }
+        }
+        return this.matches;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipInputStream;
+import io.github.ognis1205.util.nlang.trie.Trie;
+
+/**
+ * Key sets and queries shared among the TRIE benchmarks.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class Corpus {
+    /** The bundled world cities corpus. */
+    private static final String RESOURCE = "/worldcities.csv.zip";
+
+    /** The fixed random seed, so that every run measures the same key set. */
+    private static final long SEED = 0x6D757461644CL;
+
+    /** Holds the city names, loaded lazily. */
+    private static List<String> cities;
+
+    /** Key length distributions. */
+    public static enum Distribution {
+        /** City names from the bundled corpus, with numbered variants once exhausted. */
+        CITIES,
+        /** Random lowercase keys of 2 to 8 characters. */
+        SHORT,
+        /** Random lowercase keys of 16 to 48 characters. */
+        LONG
+    }
+
+    /** Benchmark key entries. */
+    static final class Key extends Trie.Entry<Integer> {
+        private final String key;
+
+        Key(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() { return this.key; }
+
+        @Override
+        public Integer getValue() { return 0; }
+    }
+
+    /** Avoids instanciation. */
+    private Corpus() {}
+
+    /**
+     * Returns a sorted key set of a given size.
+     * @param size the number of distinct keys.
+     * @param distribution the key length distribution.
+     * @return the sorted, distinct keys.
+     */
+    static List<String> keys(int size, Distribution distribution) {
+        Random random = new Random(Corpus.SEED);
+        Set<String> keys = new TreeSet<>();
+        if (distribution == Distribution.CITIES) {
+            List<String> cities = Corpus.cities();
+            for (int i = 0; keys.size() < size; i++) {
+                String city = cities.get(i % cities.size());
+                keys.add(i < cities.size() ? city : city + " " + (i / cities.size()));
+            }
+        } else {
+            int min = distribution == Distribution.SHORT ? 2 : 16;
+            int max = distribution == Distribution.SHORT ? 8 : 48;
+            while (keys.size() < size) {
+                keys.add(Corpus.random(random, min + random.nextInt(max - min + 1)));
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Wraps given sorted keys into TRIE entries.
+     * @param keys the keys to be wrapped.
+     * @return the entries.
+     */
+    static List<Key> entries(List<String> keys) {
+        List<Key> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            entries.add(new Key(key));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns queries drawn from given keys, of which `hitRatio` are registered keys.
+     * @param keys the registered keys.
+     * @param count the number of queries.
+     * @param hitRatio the ratio of registered keys among the queries.
+     * @return the shuffled queries.
+     */
+    static String[] queries(List<String> keys, int count, double hitRatio) {
+        Random random = new Random(Corpus.SEED);
+        Set<String> registered = new HashSet<>(keys);
+        List<String> queries = new ArrayList<>(count);
+        int hits = (int) Math.round(count * hitRatio);
+        while (queries.size() < count) {
+            String key = keys.get(random.nextInt(keys.size()));
+            if (queries.size() < hits) {
+                queries.add(key);
+            } else {
+                // Misses share all but the last character with a registered key, so that
+                // they walk as deep into the TRIE as hits do.
+                String miss = key.substring(0, key.length() - 1) + '~';
+                if (!registered.contains(miss)) {
+                    queries.add(miss);
+                }
+            }
+        }
+        Collections.shuffle(queries, random);
+        return queries.toArray(new String[count]);
+    }
+
+    /**
+     * Returns texts which start with given queries and continue with the next ones, as in tweets.
+     * @param queries the queries.
+     * @return the texts.
+     */
+    static String[] texts(String[] queries) {
+        String[] texts = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            texts[i] = queries[i] + " " + queries[(i + 1) % queries.length];
+        }
+        return texts;
+    }
+
+    /**
+     * Returns the city names of the bundled corpus.
+     * @return the city names.
+     */
+    private static synchronized List<String> cities() {
+        if (Corpus.cities == null) {
+            List<String> cities = new ArrayList<>();
+            try (InputStream in = Corpus.class.getResourceAsStream(Corpus.RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("missing benchmark resource " + Corpus.RESOURCE);
+                }
+                ZipInputStream zip = new ZipInputStream(in);
+                zip.getNextEntry();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String city = line.substring(0, line.indexOf(',')).trim();
+                    if (city.length() > 1) {
+                        cities.add(city);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Corpus.cities = cities;
+        }
+        return Corpus.cities;
+    }
+
+    /**
+     * Returns a random lowercase string.
+     * @param random the random number generator.
+     * @param length the length of the string.
+     * @return the generated string.
+     */
+    private static String random(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
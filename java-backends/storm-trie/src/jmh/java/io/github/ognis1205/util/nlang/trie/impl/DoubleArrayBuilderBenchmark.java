@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures `DoubleArrayBuilder.build` over already sorted key sets, sequentially and on the common fork-join pool.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G"})
+public class DoubleArrayBuilderBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int keySetSize;
+
+    @Param({"CITIES", "SHORT", "LONG"})
+    public Corpus.Distribution keyLength;
+
+    @Param({"LINKED_LIST", "BITMAP"})
+    public DoubleArrayBuilder.Allocator allocator;
+
+    private List<Corpus.Key> entries;
+
+    @Setup
+    public void setup() {
+        this.entries = Corpus.entries(Corpus.keys(this.keySetSize, this.keyLength));
+    }
+
+    @Benchmark
+    public DoubleArray build() {
+        return DoubleArrayBuilder.build(this.entries, true, id -> {}, this.allocator);
+    }
+
+    @Benchmark
+    public DoubleArray buildParallel() {
+        return DoubleArrayBuilder.build(this.entries, true, id -> {}, this.allocator, ForkJoinPool.commonPool());
+    }
+}
@@ -16,8 +16,10 @@
 package io.github.ognis1205.util.nlang.dict;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import io.github.ognis1205.util.nlang.trie.Trie;
 import io.github.ognis1205.util.nlang.trie.TrieSearcher;
+import io.github.ognis1205.util.nlang.trie.impl.AhoCorasickSearcher;
 import io.github.ognis1205.util.nlang.trie.impl.DoubleArray;
 import io.github.ognis1205.util.nlang.trie.impl.DoubleArrayBuilder;
 import io.github.ognis1205.util.nlang.trie.impl.DoubleArraySearcher;
@@ -30,6 +32,12 @@ public class Dictionary<T> implements Trie {
     /** Index for TRIE trie. */
     public DoubleArraySearcher index;
 
+    /** Aho-Corasick automaton over the index, built on the first scan. */
+    private volatile AhoCorasickSearcher scanner;
+
+    /** Double array of the index, from which the automaton is built. */
+    private final DoubleArray doubleArray;
+
     /** Indexed lexemes. */
     public LexemeArray<T> lexemes;
 
@@ -43,6 +51,21 @@ public class Dictionary<T> implements Trie {
         DoubleArray doubleArray = DoubleArrayBuilder.build(lexemeArrayBuilder.getTrieEntryList(), sorted, lexemeArrayBuilder);
         this.lexemes = LexemeArrayBuilder.build(lexemeArrayBuilder);
         this.index = new DoubleArraySearcher(doubleArray);
+        this.doubleArray = doubleArray;
+    }
+
+    /**
+     * Instanciates from a given lexemes, building the index on a given pool.
+     * @param lexemes the lexemes to be indexed.
+     * @param sorted if this value is set to be `true,` a given lexemes will be treated as already sorted.
+     * @param pool the pool where the index is built.
+     */
+    public Dictionary(List<? extends Lexeme<T>> lexemes, boolean sorted, ForkJoinPool pool) {
+        LexemeArrayBuilder<T> lexemeArrayBuilder = new LexemeArrayBuilder<T>(lexemes, sorted);
+        DoubleArray doubleArray = DoubleArrayBuilder.build(lexemeArrayBuilder.getTrieEntryList(), sorted, lexemeArrayBuilder, pool);
+        this.lexemes = LexemeArrayBuilder.build(lexemeArrayBuilder);
+        this.index = new DoubleArraySearcher(doubleArray);
+        this.doubleArray = doubleArray;
     }
 
     /**
@@ -50,8 +73,9 @@ public class Dictionary<T> implements Trie {
      * @param index the index of a given lexemes.
      * @param lexemes the lexemes to be indexed.
      */
-    public Dictionary(DoubleArray index, LexemeArray lexemes) {
+    public Dictionary(DoubleArray index, LexemeArray<T> lexemes) {
         this.index = new DoubleArraySearcher(index);
+        this.doubleArray = index;
         this.lexemes = lexemes;
     }
 
@@ -71,6 +95,33 @@ public class Dictionary<T> implements Trie {
         this.index.eachCommonPrefix(query, begin, func);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, TrieSearcher.Callback func) {
+        this.scanner().eachMatch(text, 0, func);
+    }
+
+    /**
+     * Returns the Aho-Corasick automaton, building it on the first call, so that dictionaries which are
+     * only looked up, e.g., mapped ones, pay neither the link time nor the heap of the automaton.
+     * @return the automaton.
+     */
+    private AhoCorasickSearcher scanner() {
+        AhoCorasickSearcher scanner = this.scanner;
+        if (scanner == null) {
+            synchronized (this) {
+                scanner = this.scanner;
+                if (scanner == null) {
+                    scanner = new AhoCorasickSearcher(this.doubleArray);
+                    this.scanner = scanner;
+                }
+            }
+        }
+        return scanner;
+    }
+
     /**
      * Returns the value of a given id.
      * @param id the id of a registered value.
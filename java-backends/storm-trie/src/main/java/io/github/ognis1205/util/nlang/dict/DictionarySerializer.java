@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.dict;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArray;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArraySerializer;
+
+/**
+ * Reads and writes dictionaries in a versioned binary file. The file consists of
+ * a header, the Double Array index in the form of `DoubleArraySerializer` and
+ * the lexeme values encoded by a user supplied codec. Reading memory-maps the
+ * file, so that the index of a dictionary is shared among every process on a
+ * host through the page cache and only the lexeme values are decoded onto heap.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class DictionarySerializer {
+    /** Codec of lexeme values. */
+    public static interface Codec<T> {
+        /**
+         * Encodes a given value.
+         * @param value the value to be encoded.
+         * @param out the output to be written to.
+         * @throws IOException if an I/O error occurs.
+         */
+        public void encode(T value, DataOutput out) throws IOException;
+
+        /**
+         * Decodes a value from the current position of a given buffer.
+         * @param in the buffer to be read from.
+         * @return the decoded value.
+         */
+        public T decode(ByteBuffer in);
+    }
+
+    /** Magic number identifying a serialized dictionary, i.e., `MTDC`. */
+    public static final int MAGIC = 0x4D544443;
+
+    /** Version of the binary layout. */
+    public static final int VERSION = 1;
+
+    /**
+     * Writes a given dictionary into a given file. The file is written next to the
+     * destination first and then moved atomically, so that readers never observe a
+     * partially written dictionary. The temporary file is deleted if writing fails.
+     * @param dictionary the dictionary to be written.
+     * @param path the path of the file.
+     * @param codec the codec of lexeme values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static <T> void write(Dictionary<T> dictionary, Path path, Codec<T> codec) throws IOException {
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(DictionarySerializer.MAGIC);
+                out.writeInt(DictionarySerializer.VERSION);
+                DoubleArraySerializer.write(dictionary.index.getDoubleArray(), out);
+                out.writeInt(dictionary.lexemes.size());
+                for (int i = 0; i < dictionary.lexemes.size(); i++) {
+                    codec.encode(dictionary.lexemes.get(i), out);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Throwable e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a dictionary from a given file by memory-mapping it.
+     * @param path the path of the file.
+     * @param codec the codec of lexeme values.
+     * @return the dictionary.
+     * @throws IOException if an I/O error occurs or the file is not a supported dictionary.
+     */
+    public static <T> Dictionary<T> read(Path path, Codec<T> codec) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return DictionarySerializer.read(buffer, codec);
+    }
+
+    /**
+     * Reads a dictionary from the current position of a given buffer.
+     * @param buffer the buffer to be read from.
+     * @param codec the codec of lexeme values.
+     * @return the dictionary.
+     * @throws IOException if the buffer does not hold a supported dictionary.
+     */
+    public static <T> Dictionary<T> read(ByteBuffer buffer, Codec<T> codec) throws IOException {
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            throw new IOException("truncated dictionary header");
+        }
+        final int magic = buffer.getInt();
+        final int version = buffer.getInt();
+        if (magic != DictionarySerializer.MAGIC) {
+            throw new IOException("not a dictionary: magic " + Integer.toHexString(magic));
+        }
+        if (version != DictionarySerializer.VERSION) {
+            throw new IOException("unsupported dictionary version: " + version);
+        }
+        final DoubleArray index = DoubleArraySerializer.read(buffer);
+        try {
+            final int size = buffer.getInt();
+            final List<T> data = new ArrayList<T>(size);
+            for (int i = 0; i < size; i++) {
+                data.add(codec.decode(buffer));
+            }
+            return new Dictionary<T>(index, new LexemeArray<T>(data));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated dictionary", e);
+        }
+    }
+
+    private DictionarySerializer() {}
+}
@@ -33,6 +33,22 @@ final class LexemeArray<T> {
         this.data = builder.getData();
     }
 
+    /**
+     * Instanciates from a given data.
+     * @param data the data array.
+     */
+    public LexemeArray(List<T> data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the number of values.
+     */
+    public int size() {
+        return this.data.size();
+    }
+
     /**
      * Returns the value which is specified by a given id.
      * @param id the id to be queried.
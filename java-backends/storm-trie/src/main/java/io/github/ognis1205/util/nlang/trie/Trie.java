@@ -48,4 +48,11 @@ public interface Trie {
      * @param func the callback function.
      */
     public void prefix(CharSequence query, int begin, DoubleArraySearcher.Callback func);
+
+    /**
+     * Multi-pattern search API; finds every registered key occurring in a given text in a single pass.
+     * @param text the text to be scanned.
+     * @param func the callback function.
+     */
+    public void scan(CharSequence text, DoubleArraySearcher.Callback func);
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.util.Arrays;
+import io.github.ognis1205.util.nlang.trie.TrieSearcher;
+
+/**
+ * Aho-Corasick automaton over a Double Array. Goto transitions are the Double Array
+ * transitions themselves; nodes of the Double Array are states `[0, size)` and each
+ * position `p` of the Tail array is state `size + p`, so that postfixes stored in the
+ * Tail are walked one character at a time as well. Failure and output links are
+ * computed once at instanciation, after which `eachMatch` reports every registered
+ * key occurring in a text in a single pass.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class AhoCorasickSearcher implements TrieSearcher {
+    /** State number of the root. */
+    private static final int ROOT = 0;
+
+    /** State number representing a missing transition or link. */
+    private static final int FAIL = -1;
+
+    /** Double Array to be searched. */
+    private final DoubleArray doubleArray;
+
+    /** Number of Double Array nodes, i.e., the first state number of the Tail. */
+    private final int size;
+
+    /** Failure links. */
+    private final int[] failure;
+
+    /** Output links; the nearest accepting state along failure links. */
+    private final int[] output;
+
+    /** Ids of keys accepted at each state, otherwise -1. */
+    private final int[] accept;
+
+    /** Depths of each state, i.e., the lengths of keys accepted at each state. */
+    private final int[] depth;
+
+    /**
+     * Instanciates from a given Double Array.
+     * @param doubleArray the double array to be set.
+     */
+    public AhoCorasickSearcher(DoubleArray doubleArray) {
+        this.doubleArray = doubleArray;
+        this.size = doubleArray.size();
+        final int states = this.size + doubleArray.tail.limit();
+        this.failure = new int[states];
+        this.output = new int[states];
+        this.accept = new int[states];
+        this.depth = new int[states];
+        Arrays.fill(this.output, AhoCorasickSearcher.FAIL);
+        Arrays.fill(this.accept, AhoCorasickSearcher.FAIL);
+        if (this.size > 0) {
+            this.link();
+        }
+    }
+
+    /**
+     * Returns the double array to be searched.
+     * @return the double array to be searched.
+     */
+    public DoubleArray getDoubleArray() {
+        return this.doubleArray;
+    }
+
+    /**
+     * Returns the size of a double array.
+     * @return the size of a double array.
+     */
+    public int size() {
+        return this.doubleArray.keySetSize;
+    }
+
+    /**
+     * Returns the state reached from a given state by a given character.
+     * @param state the current state.
+     * @param code the character code.
+     * @return the next state if a transition exists, otherwise `FAIL`.
+     */
+    private int next(int state, char code) {
+        int position;
+        if (state < this.size) {
+            final int base = this.doubleArray.base.get(state);
+            if (base >= 0) {
+                if (code == Constants.DoubleArrayCheck.TERM_CODE || code == Constants.DoubleArrayCheck.EMPTY_CODE) {
+                    return AhoCorasickSearcher.FAIL;
+                }
+                final int index = base + code;
+                if (index >= this.size || this.doubleArray.check.get(index) != code) {
+                    return AhoCorasickSearcher.FAIL;
+                }
+                return index;
+            }
+            final int id = Constants.DoubleArrayBase.ID(base);
+            position = this.doubleArray.begins.get(id) + (state == AhoCorasickSearcher.ROOT ? 0 : 1);
+            if (position >= this.doubleArray.begins.get(id) + this.doubleArray.lengths.get(id)) {
+                return AhoCorasickSearcher.FAIL;
+            }
+        } else {
+            if (this.accept[state] >= 0) {
+                return AhoCorasickSearcher.FAIL;
+            }
+            position = state - this.size + 1;
+        }
+        return this.doubleArray.tail.get(position) == code ? this.size + position : AhoCorasickSearcher.FAIL;
+    }
+
+    /**
+     * Registers the key accepted at a given state which has just been reached in
+     * breadth-first order. Keys ending with a leaf are accepted at the end of its
+     * postfix, keys ending with an internal node are accepted where `TERM_CODE` leads.
+     * @param state the state to be registered.
+     */
+    private void register(int state) {
+        if (state >= this.size) {
+            return;
+        }
+        final int base = this.doubleArray.base.get(state);
+        if (base >= 0) {
+            final int index = base + Constants.DoubleArrayCheck.TERM_CODE;
+            if (index < this.size
+                    && this.doubleArray.check.get(index) == Constants.DoubleArrayCheck.TERM_CODE
+                    && this.doubleArray.base.get(index) < 0) {
+                this.accept[state] = Constants.DoubleArrayBase.ID(this.doubleArray.base.get(index));
+            }
+        } else {
+            final int id = Constants.DoubleArrayBase.ID(base);
+            final int consumed = state == AhoCorasickSearcher.ROOT ? 0 : 1;
+            final int length = this.doubleArray.lengths.get(id);
+            if (length == consumed) {
+                this.accept[state] = id;
+            } else {
+                this.accept[this.size + this.doubleArray.begins.get(id) + length - 1] = id;
+            }
+        }
+    }
+
+    /**
+     * Computes failure and output links in breadth-first order.
+     */
+    private void link() {
+        final int[] children = this.children();
+        final int[] queue = new int[this.failure.length];
+        int head = 0;
+        int tail = 0;
+        this.register(AhoCorasickSearcher.ROOT);
+        queue[tail++] = AhoCorasickSearcher.ROOT;
+        while (head < tail) {
+            final int state = queue[head++];
+            final int base = state < this.size ? this.doubleArray.base.get(state) : AhoCorasickSearcher.FAIL;
+            if (state < this.size && base >= 0) {
+                for (int i = children[state]; i < children[state + 1]; i++) {
+                    final int child = children[i];
+                    queue[tail++] = this.link(state, child, this.doubleArray.check.get(child));
+                }
+            } else {
+                final int child = state < this.size
+                        ? this.size + this.doubleArray.begins.get(Constants.DoubleArrayBase.ID(base)) + (state == AhoCorasickSearcher.ROOT ? 0 : 1)
+                        : state + 1;
+                if (child < this.failure.length && this.next(state, this.doubleArray.tail.get(child - this.size)) == child) {
+                    queue[tail++] = this.link(state, child, this.doubleArray.tail.get(child - this.size));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the failure and output links of a given child state.
+     * @param parent the parent state.
+     * @param child the child state.
+     * @param code the character code leading from a given parent to a given child.
+     * @return the child state.
+     */
+    private int link(int parent, int child, char code) {
+        this.depth[child] = this.depth[parent] + 1;
+        this.register(child);
+        int fallback = AhoCorasickSearcher.ROOT;
+        if (parent != AhoCorasickSearcher.ROOT) {
+            for (int state = this.failure[parent]; ; state = this.failure[state]) {
+                final int next = this.next(state, code);
+                if (next != AhoCorasickSearcher.FAIL) {
+                    fallback = next;
+                    break;
+                } else if (state == AhoCorasickSearcher.ROOT) {
+                    break;
+                }
+            }
+        }
+        this.failure[child] = fallback;
+        this.output[child] = this.accept[fallback] >= 0 ? fallback : this.output[fallback];
+        return child;
+    }
+
+    /**
+     * Returns the children of internal Double Array nodes in compressed form: for a node
+     * `n`, its children are `children[children[n]]` to `children[children[n + 1] - 1]`.
+     * Since every base is owned by exactly one node, the parent of a node `c` is the
+     * owner of the base `c - check[c]`.
+     * @return the children of every node.
+     */
+    private int[] children() {
+        final int[] owner = new int[this.size];
+        Arrays.fill(owner, AhoCorasickSearcher.FAIL);
+        for (int node = 0; node < this.size; node++) {
+            final int base = this.doubleArray.base.get(node);
+            if (base >= 0 && base < this.size) {
+                owner[base] = node;
+            }
+        }
+        final int[] parents = new int[this.size];
+        final int[] offsets = new int[this.size + 2];
+        int edges = 0;
+        for (int node = 1; node < this.size; node++) {
+            final char code = this.doubleArray.check.get(node);
+            final int base = node - code;
+            parents[node] = code == Constants.DoubleArrayCheck.TERM_CODE || code == Constants.DoubleArrayCheck.EMPTY_CODE || base < 0
+                    ? AhoCorasickSearcher.FAIL
+                    : owner[base];
+            if (parents[node] != AhoCorasickSearcher.FAIL) {
+                offsets[parents[node] + 2]++;
+                edges++;
+            }
+        }
+        final int[] children = new int[this.size + 1 + edges];
+        offsets[1] = this.size + 1;
+        for (int node = 0; node < this.size; node++) {
+            offsets[node + 2] += offsets[node + 1];
+        }
+        for (int node = 1; node < this.size; node++) {
+            if (parents[node] != AhoCorasickSearcher.FAIL) {
+                children[offsets[parents[node] + 1]++] = node;
+            }
+        }
+        offsets[0] = this.size + 1;
+        System.arraycopy(offsets, 0, children, 0, this.size + 1);
+        return children;
+    }
+
+    /**
+     * Calls a given callback function for every registered key occurring in a given text.
+     * Keys are reported in order of their end positions, longer keys first.
+     * @param text the text to be scanned.
+     * @param begin the position of the start of a scan.
+     * @param func the callback function.
+     */
+    public void eachMatch(CharSequence text, int begin, Callback func) {
+        int state = AhoCorasickSearcher.ROOT;
+        for (int curr = begin; curr < text.length(); curr++) {
+            final char code = text.charAt(curr);
+            int next = this.next(state, code);
+            while (next == AhoCorasickSearcher.FAIL && state != AhoCorasickSearcher.ROOT) {
+                state = this.failure[state];
+                next = this.next(state, code);
+            }
+            state = next == AhoCorasickSearcher.FAIL ? AhoCorasickSearcher.ROOT : next;
+            for (int match = this.accept[state] >= 0 ? state : this.output[state]; match != AhoCorasickSearcher.FAIL; match = this.output[match]) {
+                func.apply(curr + 1 - this.depth[match], this.depth[match], this.accept[match]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int membership(CharSequence key) {
+        int state = AhoCorasickSearcher.ROOT;
+        for (int curr = 0; curr < key.length() && state != AhoCorasickSearcher.FAIL; curr++) {
+            state = this.next(state, key.charAt(curr));
+        }
+        return state == AhoCorasickSearcher.FAIL ? -1 : this.accept[state];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eachCommonPrefix(CharSequence query, int begin, Callback func) {
+        int state = AhoCorasickSearcher.ROOT;
+        for (int curr = begin; curr < query.length(); curr++) {
+            state = this.next(state, query.charAt(curr));
+            if (state == AhoCorasickSearcher.FAIL) {
+                return;
+            } else if (this.accept[state] >= 0) {
+                func.apply(begin, this.depth[state], this.accept[state]);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocator which maintains nodes in use in bitmaps of primitive words. Free nodes
+ * are found a word at a time with `Long.numberOfTrailingZeros`, so that a search
+ * skips 64 nodes in use per step without allocating anything. A free node which
+ * has been tried and rejected `MAX_TRIALS` times as the first node of a branching
+ * string is closed, i.e., it is skipped by later searches of branching strings
+ * and left for strings with a single character, which fit in any free node. This
+ * bounds the work spent on fragmented regions of a double array.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+final class BitmapDoubleArrayAllocator implements DoubleArrayAllocator {
+    /** Shift converting an address into a word index. */
+    private static final int WORD_SHIFT = 6;
+
+    /** Number of rejections after which a free node is closed. */
+    private static final int MAX_TRIALS = 4;
+
+    /** Bitmap of nodes in use. */
+    private long[] nodes = new long[(Constants.DoubleArrayCheck.LIMIT_CODE * 2) >>> WORD_SHIFT];
+
+    /** Bitmap of nodes either in use or closed. */
+    private long[] closed = new long[(Constants.DoubleArrayCheck.LIMIT_CODE * 2) >>> WORD_SHIFT];
+
+    /** Bitmap of base values in use. */
+    private long[] bases = new long[(Constants.DoubleArrayCheck.LIMIT_CODE * 2) >>> WORD_SHIFT];
+
+    /** Number of rejections of each free node. */
+    private byte[] trials = new byte[Constants.DoubleArrayCheck.LIMIT_CODE * 2];
+
+    /** Lower bound of free nodes. */
+    private int head = Constants.DoubleArrayCheck.LIMIT_CODE + 1;
+
+    /** Lower bound of nodes which are neither in use nor closed. */
+    private int openHead = Constants.DoubleArrayCheck.LIMIT_CODE + 1;
+
+    /**
+     * Returns `true` if a given bit is set.
+     * @param bitmap the bitmap to be checked.
+     * @param index the index of a bit.
+     * @return `true` if a given bit is set.
+     */
+    private static boolean get(long[] bitmap, int index) {
+        final int word = index >>> BitmapDoubleArrayAllocator.WORD_SHIFT;
+        return word < bitmap.length && (bitmap[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets a given bit, growing a given bitmap if required.
+     * @param bitmap the bitmap to be set.
+     * @param index the index of a bit.
+     * @return the bitmap which holds a given bit.
+     */
+    private static long[] set(long[] bitmap, int index) {
+        final int word = index >>> BitmapDoubleArrayAllocator.WORD_SHIFT;
+        if (word >= bitmap.length) {
+            bitmap = Arrays.copyOf(bitmap, Math.max(word + 1, bitmap.length * 2));
+        }
+        bitmap[word] |= 1L << index;
+        return bitmap;
+    }
+
+    /**
+     * Returns the first clear bit at or after a given index.
+     * @param bitmap the bitmap to be searched.
+     * @param from the index where a search starts.
+     * @return the first clear bit.
+     */
+    private static int nextClear(long[] bitmap, int from) {
+        int word = from >>> BitmapDoubleArrayAllocator.WORD_SHIFT;
+        if (word >= bitmap.length) {
+            return from;
+        }
+        long clear = ~bitmap[word] & (-1L << from);
+        while (clear == 0) {
+            if (++word == bitmap.length) {
+                return word << BitmapDoubleArrayAllocator.WORD_SHIFT;
+            }
+            clear = ~bitmap[word];
+        }
+        return (word << BitmapDoubleArrayAllocator.WORD_SHIFT) + Long.numberOfTrailingZeros(clear);
+    }
+
+    /**
+     * Returns true if every node which a given string occupies at a given candidate is free.
+     * @param codes the list of characters of a given string.
+     * @param candidate the candidate index of a double array where a given string to be stored.
+     * @return `true` if a given string is assignable at a specified candidate position.
+     */
+    private boolean isAssignable(List<Character> codes, int candidate) {
+        for (int i = 1; i < codes.size(); i++) {
+            if (BitmapDoubleArrayAllocator.get(this.nodes, candidate + codes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts a rejection of a given free node and closes it if required.
+     * @param node the rejected node.
+     */
+    private void reject(int node) {
+        if (node >= this.trials.length) {
+            this.trials = Arrays.copyOf(this.trials, Math.max(node + 1, this.trials.length * 2));
+        }
+        if (++this.trials[node] >= BitmapDoubleArrayAllocator.MAX_TRIALS) {
+            this.closed = BitmapDoubleArrayAllocator.set(this.closed, node);
+        }
+    }
+
+    /**
+     * Marks a given node as in use.
+     * @param node the node to be used.
+     */
+    private void use(int node) {
+        this.nodes = BitmapDoubleArrayAllocator.set(this.nodes, node);
+        this.closed = BitmapDoubleArrayAllocator.set(this.closed, node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int xCheck(List<Character> codes) {
+        final int first = codes.get(0);
+        final boolean branching = codes.size() > 1;
+        final long[] skip = branching ? this.closed : this.nodes;
+        for (int curr = BitmapDoubleArrayAllocator.nextClear(skip, branching ? this.openHead : this.head); ;
+             curr = BitmapDoubleArrayAllocator.nextClear(skip, curr + 1)) {
+            final int candidate = curr - first;
+            if (!BitmapDoubleArrayAllocator.get(this.bases, candidate) && this.isAssignable(codes, candidate)) {
+                this.bases = BitmapDoubleArrayAllocator.set(this.bases, candidate);
+                for (Character c : codes) {
+                    this.use(candidate + c);
+                }
+                this.head = BitmapDoubleArrayAllocator.nextClear(this.nodes, this.head);
+                this.openHead = BitmapDoubleArrayAllocator.nextClear(this.closed, this.openHead);
+                return candidate;
+            } else if (branching) {
+                this.reject(curr);
+            }
+        }
+    }
+}
@@ -15,42 +15,115 @@
  */
 package io.github.ognis1205.util.nlang.trie.impl;
 
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
 import java.util.List;
 
 /**
+ * Immutable, compacted form of a Double Array. Once a build finishes, the boxed
+ * working arrays of `DoubleArrayBuilder` are copied into primitive arrays trimmed
+ * to the last node in use, so that lookups neither unbox nor chase pointers.
+ * The arrays are accessed through buffer views so that a Double Array may also be
+ * backed by a memory-mapped file, see `DoubleArraySerializer`.
  * @author Shingo OKAWA
  * @version 1.0.0
  */
 public final class DoubleArray {
     /** Number of registered keys. */
-    public int keySetSize;
+    public final int keySetSize;
 
     /** Base array. */
-    public final DynamicArrayList<Integer> base;
+    final IntBuffer base;
 
     /** Check array. */
-    public final DynamicArrayList<Character> check;
+    final CharBuffer check;
 
     /** Tail array; starting positions of postfixes. */
-    public final List<Integer> begins;
+    final IntBuffer begins;
 
     /** Tail array; lengths of postfixes. */
-    public final List<Integer> lengths;
+    final IntBuffer lengths;
 
     /** Tail array. */
-    public StringBuilder tail;
+    final CharBuffer tail;
 
     /**
      * Instanciates from a given Double Array builder.
      * @param builder the double array builder.
      */
     public DoubleArray(DoubleArrayBuilder builder) {
+        final DynamicArrayList<Integer> base = builder.getBase();
+        final DynamicArrayList<Character> check = builder.getCheck();
+        final int size = DoubleArray.compactedSize(base, check);
+        final int[] baseArray = new int[size];
+        final char[] checkArray = new char[size];
+        for (int i = 0; i < size; i++) {
+            baseArray[i] = i < base.size() ? base.get(i) : Constants.DoubleArrayBase.INIT_VALUE;
+            checkArray[i] = i < check.size() ? check.get(i) : Constants.DoubleArrayCheck.EMPTY_CODE;
+        }
+        final char[] tailArray = new char[builder.getTail().length()];
+        builder.getTail().getChars(0, tailArray.length, tailArray, 0);
         this.keySetSize = builder.getKeySetSize();
-        this.base = builder.getBase();
-        this.check = builder.getCheck();
-        this.begins = builder.getBegins();
-        this.lengths = builder.getLengths();
-        this.tail = builder.getTail();
+        this.base = IntBuffer.wrap(baseArray);
+        this.check = CharBuffer.wrap(checkArray);
+        this.begins = IntBuffer.wrap(DoubleArray.toArray(builder.getBegins()));
+        this.lengths = IntBuffer.wrap(DoubleArray.toArray(builder.getLengths()));
+        this.tail = CharBuffer.wrap(tailArray);
+    }
+
+    /**
+     * Instanciates from given arrays.
+     * @param keySetSize the number of registered keys.
+     * @param base the base array.
+     * @param check the check array.
+     * @param begins the starting positions of postfixes.
+     * @param lengths the lengths of postfixes.
+     * @param tail the tail array.
+     */
+    DoubleArray(int keySetSize, IntBuffer base, CharBuffer check, IntBuffer begins, IntBuffer lengths, CharBuffer tail) {
+        this.keySetSize = keySetSize;
+        this.base = base;
+        this.check = check;
+        this.begins = begins;
+        this.lengths = lengths;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns the number of nodes in this double array.
+     * @return the number of nodes in this double array.
+     */
+    public int size() {
+        return this.base.limit();
     }
-}
 
+    /**
+     * Returns the length of the arrays which is required to hold all nodes in use,
+     * i.e., the position of the last node in use plus one.
+     * @param base the base array.
+     * @param check the check array.
+     * @return the compacted length.
+     */
+    private static int compactedSize(List<Integer> base, List<Character> check) {
+        for (int i = Math.max(base.size(), check.size()) - 1; i >= 0; i--) {
+            if ((i < base.size() && base.get(i) != Constants.DoubleArrayBase.INIT_VALUE)
+                    || (i < check.size() && check.get(i) != Constants.DoubleArrayCheck.EMPTY_CODE)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Converts a given list of integers into a primitive array.
+     * @param list the list to be converted.
+     * @return the primitive array.
+     */
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
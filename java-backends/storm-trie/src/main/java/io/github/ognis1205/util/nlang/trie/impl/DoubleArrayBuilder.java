@@ -16,7 +16,11 @@
 package io.github.ognis1205.util.nlang.trie.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import io.github.ognis1205.util.nlang.trie.Trie;
 import io.github.ognis1205.util.nlang.trie.TrieBuilder;
 
@@ -43,14 +47,219 @@ public final class DoubleArrayBuilder implements TrieBuilder {
     /** Tail array. */
     private final StringBuilder tail = new StringBuilder();
 
+    /** Memory allocators available to build Double Array. */
+    public static enum Allocator {
+        /** Allocator maintaining free nodes in a linked list of node objects. */
+        LINKED_LIST,
+
+        /** Allocator maintaining nodes in use in a bitmap of primitive words. */
+        BITMAP;
+
+        /**
+         * Instanciates the memory allocator.
+         * @return the memory allocator.
+         */
+        DoubleArrayAllocator create() {
+            switch (this) {
+                case LINKED_LIST:
+                    return new LinkedDoubleArrayAllocator();
+                default:
+                    return new BitmapDoubleArrayAllocator();
+            }
+        }
+    }
+
+    /**
+     * Description of a trie in the order of the sequential build; a node is recorded as the
+     * number of its branching characters followed by the characters, and a leaf as `0`
+     * followed by the length of its postfix.
+     */
+    private static final class Fragment {
+        /** Recorded nodes and leaves. */
+        private int[] events = new int[16];
+
+        /** Number of recorded events. */
+        private int size;
+
+        /** Postfixes of leaves. */
+        private final StringBuilder tail = new StringBuilder();
+
+        /** Position of the next event to be replayed. */
+        private int event;
+
+        /** Position of the next postfix to be replayed. */
+        private int position;
+
+        /**
+         * Ensures the capacity of events.
+         * @param capacity the required capacity.
+         */
+        private void ensure(int capacity) {
+            if (capacity > this.events.length) {
+                this.events = Arrays.copyOf(this.events, Math.max(capacity, this.events.length * 2));
+            }
+        }
+
+        /**
+         * Records a node.
+         * @param codes the branching characters of a node.
+         */
+        private void node(List<Character> codes) {
+            this.ensure(this.size + codes.size() + 1);
+            this.events[this.size++] = codes.size();
+            for (Character c : codes) {
+                this.events[this.size++] = c;
+            }
+        }
+
+        /**
+         * Records a leaf.
+         * @param suffix the postfix of a leaf.
+         */
+        private void leaf(String suffix) {
+            this.ensure(this.size + 2);
+            this.events[this.size++] = 0;
+            this.events[this.size++] = suffix.length();
+            this.tail.append(suffix);
+        }
+
+        /**
+         * Appends a given description of a sub-trie.
+         * @param that the description to be appended.
+         */
+        private void append(Fragment that) {
+            this.ensure(this.size + that.size);
+            System.arraycopy(that.events, 0, this.events, this.size, that.size);
+            this.size += that.size;
+            this.tail.append(that.tail);
+        }
+    }
+
+    /** Task describing the trie of a range of keywords, forking a task per branch for large ranges. */
+    private static final class Describe extends RecursiveTask<Fragment> {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Number of keywords up to which a range is described without forking. */
+        private static final int THRESHOLD = 1024;
+
+        /** List of keywords. */
+        private final List<StringStream> keys;
+
+        /** The start position of a keyword. */
+        private final int begin;
+
+        /** The end position of a keyword. */
+        private final int end;
+
+        /**
+         * Instanciates a task for a given range of keywords.
+         * @param keys the keywords.
+         * @param begin the start position of a keyword.
+         * @param end the end position of a keyword.
+         */
+        private Describe(List<StringStream> keys, int begin, int end) {
+            this.keys = keys;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Fragment compute() {
+            final Fragment fragment = new Fragment();
+            if (this.end - this.begin <= Describe.THRESHOLD) {
+                Describe.describe(this.keys, this.begin, this.end, fragment);
+                return fragment;
+            }
+
+            final List<Integer> ends = new ArrayList<Integer>();
+            final List<Character> codes = new ArrayList<Character>();
+            DoubleArrayBuilder.group(this.keys, this.begin, this.end, codes, ends);
+            fragment.node(codes);
+
+            final List<Describe> tasks = new ArrayList<Describe>(codes.size());
+            for (int i = 0; i < codes.size(); i++) {
+                tasks.add(new Describe(this.keys, ends.get(i), ends.get(i + 1)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (Describe task : tasks) {
+                fragment.append(task.join());
+            }
+            return fragment;
+        }
+
+        /**
+         * Describes the trie of a given range of keywords on the current thread.
+         * @param keys the keywords.
+         * @param begin the start position of a keyword.
+         * @param end the end position of a keyword.
+         * @param fragment the description to be recorded into.
+         */
+        private static void describe(List<StringStream> keys, int begin, int end, Fragment fragment) {
+            if (end - begin == 1) {
+                fragment.leaf(keys.get(begin).rest(-1));
+                return;
+            }
+
+            final List<Integer> ends = new ArrayList<Integer>();
+            final List<Character> codes = new ArrayList<Character>();
+            DoubleArrayBuilder.group(keys, begin, end, codes, ends);
+            fragment.node(codes);
+            for (int i = 0; i < codes.size(); i++) {
+                Describe.describe(keys, ends.get(i), ends.get(i + 1), fragment);
+            }
+        }
+    }
+
     /**
      * Instanciates from a given Double Array builder and keywords.
      * @param keys the keywords to be registered.
      * @param sorted if this value is set to be `true`, treat a given keywords as already sorted.
      */
     public static DoubleArray build(List<? extends Trie.Entry> keys, boolean sorted, Callback func) {
+        return DoubleArrayBuilder.build(keys, sorted, func, Allocator.BITMAP);
+    }
+
+    /**
+     * Instanciates from a given Double Array builder and keywords.
+     * @param keys the keywords to be registered.
+     * @param sorted if this value is set to be `true`, treat a given keywords as already sorted.
+     * @param allocator the memory allocator to be used.
+     */
+    public static DoubleArray build(List<? extends Trie.Entry> keys, boolean sorted, Callback func, Allocator allocator) {
         DoubleArrayBuilder builder = new DoubleArrayBuilder(keys, sorted);
-        builder.build(new DoubleArrayAllocator(), 0, builder.keys.size(), 0, func);
+        builder.build(allocator.create(), 0, builder.keys.size(), 0, func);
+        return new DoubleArray(builder);
+    }
+
+    /**
+     * Instanciates from a given Double Array builder and keywords in parallel.
+     * @param keys the keywords to be registered.
+     * @param sorted if this value is set to be `true`, treat a given keywords as already sorted.
+     * @param pool the pool where sub-tries are described.
+     */
+    public static DoubleArray build(List<? extends Trie.Entry> keys, boolean sorted, Callback func, ForkJoinPool pool) {
+        return DoubleArrayBuilder.build(keys, sorted, func, Allocator.BITMAP, pool);
+    }
+
+    /**
+     * Instanciates from a given Double Array builder and keywords in parallel. Sub-tries of
+     * the key space are described on a given pool, i.e., their branching characters and
+     * postfixes are collected, and then replayed on the calling thread in the order of the
+     * sequential build. Since the allocator sees exactly the same requests, the resulting
+     * Double Array is identical to the one built by `build` without a pool.
+     * @param keys the keywords to be registered.
+     * @param sorted if this value is set to be `true`, treat a given keywords as already sorted.
+     * @param allocator the memory allocator to be used.
+     * @param pool the pool where sub-tries are described.
+     */
+    public static DoubleArray build(List<? extends Trie.Entry> keys, boolean sorted, Callback func, Allocator allocator, ForkJoinPool pool) {
+        DoubleArrayBuilder builder = new DoubleArrayBuilder(keys, sorted);
+        Fragment fragment = pool.invoke(new Describe(builder.keys, 0, builder.keys.size()));
+        builder.replay(allocator.create(), fragment, 0, func);
         return new DoubleArray(builder);
     }
 
@@ -84,14 +293,30 @@ public final class DoubleArrayBuilder implements TrieBuilder {
      */
     private void build(DoubleArrayAllocator allocator, int begin, int end, int rootIndex, Callback func) {
         if (end - begin == 1) {
-            this.insertTail(this.keys.get(begin), rootIndex, func);
+            this.insertTail(this.keys.get(begin).rest(-1), rootIndex, func);
             return;
         }
 
         final List<Integer> ends = new ArrayList<Integer>();
         final List<Character> codes = new ArrayList<Character>();
-        char prev = Constants.DoubleArrayCheck.EMPTY_CODE;
+        DoubleArrayBuilder.group(this.keys, begin, end, codes, ends);
 
+        final int xNode = allocator.xCheck(codes);
+        for (int i = 0; i< codes.size(); i++) {
+            this.build(allocator, ends.get(i), ends.get(i + 1), this.setNode(codes.get(i), rootIndex, xNode), func);
+        }
+    }
+
+    /**
+     * Reads the next characters of given keywords and groups them by the characters.
+     * @param keys the keywords.
+     * @param begin the start position of a keyword.
+     * @param end the end position of a keyword.
+     * @param codes the list where distinct characters are added.
+     * @param ends the list where the start positions of groups, followed by `end`, are added.
+     */
+    private static void group(List<StringStream> keys, int begin, int end, List<Character> codes, List<Integer> ends) {
+        char prev = Constants.DoubleArrayCheck.EMPTY_CODE;
         for (int i = begin; i < end; i++) {
             char curr = keys.get(i).read();
             if (prev != curr) {
@@ -100,10 +325,31 @@ public final class DoubleArrayBuilder implements TrieBuilder {
             }
         }
         ends.add(end);
+    }
+
+    /**
+     * Builds Double Array from a given description of a trie.
+     * @param allocator the memory allocator.
+     * @param fragment the description of a trie.
+     * @param rootIndex the index of a root node.
+     * @param func the callback function which will be called after a given keyword is actually registered.
+     */
+    private void replay(DoubleArrayAllocator allocator, Fragment fragment, int rootIndex, Callback func) {
+        final int count = fragment.events[fragment.event++];
+        if (count == 0) {
+            final int length = fragment.events[fragment.event++];
+            this.insertTail(fragment.tail.subSequence(fragment.position, fragment.position += length), rootIndex, func);
+            return;
+        }
+
+        final List<Character> codes = new ArrayList<Character>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add((char) fragment.events[fragment.event++]);
+        }
 
         final int xNode = allocator.xCheck(codes);
-        for (int i = 0; i< codes.size(); i++) {
-            this.build(allocator, ends.get(i), ends.get(i + 1), this.setNode(codes.get(i), rootIndex, xNode), func);
+        for (int i = 0; i < codes.size(); i++) {
+            this.replay(allocator, fragment, this.setNode(codes.get(i), rootIndex, xNode), func);
         }
     }
 
@@ -123,12 +369,11 @@ public final class DoubleArrayBuilder implements TrieBuilder {
 
     /**
      * Inserts a given postfix into a Tail array;
-     * @param key the key to be inserted
+     * @param suffix the postfix to be inserted
      * @param nodeIndex the nodeIndex of the key.
      * @param func the callback function.
      */
-    private void insertTail(StringStream key, int nodeIndex, Callback func) {
-        String suffix = key.rest(-1);
+    private void insertTail(CharSequence suffix, int nodeIndex, Callback func) {
         int id = Constants.DoubleArrayBase.ID(this.begins.size());
         //System.out.println(Constants.DoubleArrayBase.ID(id));
         this.base.set(nodeIndex, id, Constants.DoubleArrayBase.INIT_VALUE);
@@ -33,6 +33,14 @@ public final class DoubleArraySearcher implements TrieSearcher {
         this.doubleArray = doubleArray;
     }
 
+    /**
+     * Returns the double array to be searched.
+     * @return the double array to be searched.
+     */
+    public DoubleArray getDoubleArray() {
+        return this.doubleArray;
+    }
+
     /**
      * Returns the size of a double array.
      * @return the size of a double array.
@@ -42,35 +50,62 @@ public final class DoubleArraySearcher implements TrieSearcher {
     }
 
     /**
-     * Returns `true` if the trailing string after a specified node in a double array
-     * matches to a given key.
-     * @param key the key to be checked.
-     * @param node the node number where match starts.
+     * Returns `true` if a given query starts with the postfix of a given id at a given position.
+     * Characters are compared in place against the Tail array, so that no string is built.
+     * @param query the query to be checked.
+     * @param begin the position within a given query where the postfix is expected.
+     * @param id the id of the postfix.
+     * @return `true` if a given query starts with the postfix.
+     */
+    private boolean startsWithTail(CharSequence query, int begin, int id) {
+        final int tailBegin = this.doubleArray.begins.get(id);
+        final int length = this.doubleArray.lengths.get(id);
+        if (query.length() - begin < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (query.charAt(begin + i) != this.doubleArray.tail.get(tailBegin + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the node reached from a given base by a given character code.
+     * @param base the base of the current node.
+     * @param code the character code.
+     * @return the index of the reached node if a transition exists, otherwise -1.
      */
-    private boolean matchTail(StringStream key, int node) {
-        final int id = Constants.DoubleArrayBase.ID(node);
-        final int begin = this.doubleArray.begins.get(id);
-        final int offset = this.doubleArray.lengths.get(id);
-        final String suffix = this.doubleArray.tail.substring(begin, begin + offset);
-        return key.rest(-1).equals(suffix);
+    private int next(int base, char code) {
+        final int index = base + code;
+        if (index < 0 || index >= this.doubleArray.size() || this.doubleArray.check.get(index) != code) {
+            return -1;
+        }
+        return index;
     }
 
     /**
-     * Calls a given callback function when the prefix of a given key matches to a
-     * registered element in a double array.
-     * @param key the key to be checked.
-     * @param node the current position of a double array.
-     * @param begin the current position of a given key.
-     * @param offset the relative position of a match from a given begin position.
-     * @param func the callback function.
+     * Returns the id of a key which ends at the node of a given base, i.e., the node has
+     * a child by `TERM_CODE`.
+     * @param base the base of the current node.
+     * @return the id if a key ends at the node, otherwise -1.
      */
-    private void applyIfKeyIncludesSuffix(StringStream key, int node, int begin, int offset, Callback func) {
-        final int id = Constants.DoubleArrayBase.ID(node);
-        final int suffixBegin = this.doubleArray.begins.get(id);
-        final int suffixOffset = this.doubleArray.lengths.get(id);
-        if (key.startsWith(this.doubleArray.tail, suffixBegin, suffixOffset)) {
-            func.apply(begin, offset + suffixOffset, id);
+    private int term(int base) {
+        final int index = this.next(base, Constants.DoubleArrayCheck.TERM_CODE);
+        if (index < 0 || this.doubleArray.base.get(index) >= 0) {
+            return -1;
         }
+        return Constants.DoubleArrayBase.ID(this.doubleArray.base.get(index));
+    }
+
+    /**
+     * Returns `true` if a given character code can be stored in a double array.
+     * @param code the character code to be checked.
+     * @return `true` if a given character code can be stored in a double array.
+     */
+    private static boolean isValid(char code) {
+        return code != Constants.DoubleArrayCheck.TERM_CODE && code != Constants.DoubleArrayCheck.EMPTY_CODE;
     }
 
     /**
@@ -78,23 +113,21 @@ public final class DoubleArraySearcher implements TrieSearcher {
      */
     @Override
     public int membership(CharSequence key) {
-        int node = this.doubleArray.base.get(0);
-        StringStream keyStream = new StringStream(key);
-        for (char code = keyStream.read(); ; code = keyStream.read()) {
-            final int index = node + code;
-            if (index < 0) return -1;
-            node = this.doubleArray.base.get(index);
-            if (this.doubleArray.check.get(index) == code) {
-                if (node >= 0) {
-                    continue;
-                } else if (keyStream.eos() || this.matchTail(keyStream, node)) {
-                    return Constants.DoubleArrayBase.ID(node);
-                } else {
-                    return -1;
-                }
-            } else {
-                return -1;
+        if (this.doubleArray.size() == 0) return -1;
+        int base = this.doubleArray.base.get(0);
+        for (int curr = 0; ; curr++) {
+            if (base < 0) {
+                final int id = Constants.DoubleArrayBase.ID(base);
+                // The postfix starts with the character which leads to the leaf.
+                final int from = curr == 0 ? 0 : curr - 1;
+                return key.length() - from == this.doubleArray.lengths.get(id) && this.startsWithTail(key, from, id) ? id : -1;
+            } else if (curr == key.length()) {
+                return this.term(base);
             }
+            final char code = key.charAt(curr);
+            final int index = DoubleArraySearcher.isValid(code) ? this.next(base, code) : -1;
+            if (index < 0) return -1;
+            base = this.doubleArray.base.get(index);
         }
     }
 
@@ -103,22 +136,28 @@ public final class DoubleArraySearcher implements TrieSearcher {
      */
     @Override
     public void eachCommonPrefix(CharSequence query, int begin, Callback func) {
-        int node = this.doubleArray.base.get(0);
-        int offset = 0;
-        StringStream queryStream = new StringStream(query, begin);
-        for (char code = queryStream.read(); ; code = queryStream.read(), offset++) {
-            final int index = node + code;
-            if (index < 0) return;
-            node = this.doubleArray.base.get(index);
-            if (this.doubleArray.check.get(index) == code) {
-                if (node >= 0) {
-                    continue;
-                } else {
-                    this.applyIfKeyIncludesSuffix(queryStream, node, begin, offset, func);
+        if (this.doubleArray.size() == 0) return;
+        int base = this.doubleArray.base.get(0);
+        for (int curr = begin; ; curr++) {
+            if (base < 0) {
+                final int id = Constants.DoubleArrayBase.ID(base);
+                // The postfix starts with the character which leads to the leaf.
+                final int from = curr == begin ? begin : curr - 1;
+                if (this.startsWithTail(query, from, id)) {
+                    func.apply(begin, from - begin + this.doubleArray.lengths.get(id), id);
                 }
-            } else {
                 return;
+            } else if (curr > begin) {
+                final int id = this.term(base);
+                if (id >= 0) {
+                    func.apply(begin, curr - begin, id);
+                }
             }
+            if (curr == query.length()) return;
+            final char code = query.charAt(curr);
+            final int index = DoubleArraySearcher.isValid(code) ? this.next(base, code) : -1;
+            if (index < 0) return;
+            base = this.doubleArray.base.get(index);
         }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 Shingo OKAWA
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ognis1205.util.nlang.trie.impl;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Reads and writes Double Arrays in a versioned binary form. The layout is a
+ * fixed-size header followed by the base, begins and lengths arrays as big-endian
+ * 32-bit integers and the check and tail arrays as big-endian 16-bit characters,
+ * padded to a 4-byte boundary. Reading does not copy anything; the resulting
+ * Double Array is a set of views over a given buffer, e.g., a memory-mapped file.
+ * @author Shingo OKAWA
+ * @version 1.0.0
+ */
+public final class DoubleArraySerializer {
+    /** Magic number identifying a serialized Double Array, i.e., `MTDA`. */
+    public static final int MAGIC = 0x4D544441;
+
+    /** Version of the binary layout. */
+    public static final int VERSION = 1;
+
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    /**
+     * Writes a given Double Array.
+     * @param doubleArray the double array to be written.
+     * @param out the output to be written to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void write(DoubleArray doubleArray, DataOutput out) throws IOException {
+        final int size = doubleArray.size();
+        final int keys = doubleArray.begins.limit();
+        final int tail = doubleArray.tail.limit();
+        out.writeInt(DoubleArraySerializer.MAGIC);
+        out.writeInt(DoubleArraySerializer.VERSION);
+        out.writeInt(doubleArray.keySetSize);
+        out.writeInt(size);
+        out.writeInt(keys);
+        out.writeInt(tail);
+        for (int i = 0; i < size; i++) out.writeInt(doubleArray.base.get(i));
+        for (int i = 0; i < keys; i++) out.writeInt(doubleArray.begins.get(i));
+        for (int i = 0; i < keys; i++) out.writeInt(doubleArray.lengths.get(i));
+        for (int i = 0; i < size; i++) out.writeChar(doubleArray.check.get(i));
+        for (int i = 0; i < tail; i++) out.writeChar(doubleArray.tail.get(i));
+        for (int i = 0; i < DoubleArraySerializer.padding(size, tail); i++) out.writeByte(0);
+    }
+
+    /**
+     * Reads a Double Array from the current position of a given buffer and advances
+     * the position to the end of the Double Array. The returned Double Array shares
+     * its content with the given buffer.
+     * @param buffer the buffer to be read from.
+     * @return the double array.
+     * @throws IOException if the buffer does not hold a supported Double Array.
+     */
+    public static DoubleArray read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < DoubleArraySerializer.HEADER_SIZE) {
+            throw new IOException("truncated double array header");
+        }
+        final int magic = buffer.getInt();
+        final int version = buffer.getInt();
+        if (magic != DoubleArraySerializer.MAGIC) {
+            throw new IOException("not a double array: magic " + Integer.toHexString(magic));
+        }
+        if (version != DoubleArraySerializer.VERSION) {
+            throw new IOException("unsupported double array version: " + version);
+        }
+        final int keySetSize = buffer.getInt();
+        final int size = buffer.getInt();
+        final int keys = buffer.getInt();
+        final int tail = buffer.getInt();
+        final long required = (long) Integer.BYTES * (size + 2L * keys)
+                + (long) Character.BYTES * (size + tail)
+                + DoubleArraySerializer.padding(size, tail);
+        if (keySetSize < 0 || size < 0 || keys < 0 || tail < 0 || buffer.remaining() < required) {
+            throw new IOException("truncated double array");
+        }
+        final IntBuffer base = DoubleArraySerializer.section(buffer, Integer.BYTES * size).asIntBuffer();
+        final IntBuffer begins = DoubleArraySerializer.section(buffer, Integer.BYTES * keys).asIntBuffer();
+        final IntBuffer lengths = DoubleArraySerializer.section(buffer, Integer.BYTES * keys).asIntBuffer();
+        final CharBuffer check = DoubleArraySerializer.section(buffer, Character.BYTES * size).asCharBuffer();
+        final CharBuffer tails = DoubleArraySerializer.section(buffer, Character.BYTES * tail).asCharBuffer();
+        DoubleArraySerializer.section(buffer, DoubleArraySerializer.padding(size, tail));
+        return new DoubleArray(keySetSize, base, check, begins, lengths, tails);
+    }
+
+    /**
+     * Cuts a section of a given length off the current position of a given buffer.
+     * @param buffer the buffer to be sliced.
+     * @param length the length of the section in bytes.
+     * @return the section.
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int length) {
+        final ByteBuffer section = buffer.slice();
+        ((Buffer) section).limit(length);
+        ((Buffer) buffer).position(buffer.position() + length);
+        return section;
+    }
+
+    /**
+     * Returns the number of padding bytes which aligns the end of the character arrays.
+     * @param size the number of nodes.
+     * @param tail the length of the tail array.
+     * @return the number of padding bytes.
+     */
+    private static int padding(int size, int tail) {
+        return ((size + tail) & 1) * Character.BYTES;
+    }
+
+    private DoubleArraySerializer() {}
+}
@@ -61,24 +61,6 @@ final class StringStream implements Comparable<StringStream> {
         return this.rest().compareTo(stream.rest());
     }
 
-    /**
-     * Returns `true` if the data starts with a given prefix.
-     * @param prefix the prefix to be checked.
-     * @param begin the relative position within a given prefix where the comparison starts.
-     * @param length the length of a given prefix.
-     */
-    public boolean startsWith(CharSequence prefix, int begin, int length) {
-        if (this.sequence.length() - this.curr < length) {
-            return false;
-        }
-        for (int i = 0; i < length; i++) {
-            if (this.sequence.charAt(this.curr + i - 1) != prefix.charAt(begin + i)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Returns the trailing string after the current position.
      * @return the rest of the string.
@@ -16,21 +16,40 @@
 package io.github.ognis1205.util.nlang.dict;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.DataOutput;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import io.github.ognis1205.util.nlang.trie.TrieSearcher;
+import io.github.ognis1205.util.nlang.trie.impl.AhoCorasickSearcher;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArray;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArrayBuilder;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArraySearcher;
+import io.github.ognis1205.util.nlang.trie.impl.DoubleArraySerializer;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Shingo OKAWA
@@ -75,6 +94,20 @@ public class DictionaryTest {
         }
     }
 
+    private static class Word extends Lexeme<String> {
+        private String key;
+
+        public Word(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() { return this.key; }
+
+        @Override
+        public String getValue() { return this.key; }
+    }
+
     private static class Match implements TrieSearcher.Callback {
         public Dictionary<List<Coord>> dict;
 
@@ -94,6 +127,26 @@ public class DictionaryTest {
         }
     }
 
+    private static class CoordsCodec implements DictionarySerializer.Codec<List<Coord>> {
+        @Override
+        public void encode(List<Coord> value, DataOutput out) throws IOException {
+            out.writeInt(value.size());
+            for (Coord coord : value) {
+                out.writeDouble(coord.lon);
+                out.writeDouble(coord.lat);
+            }
+        }
+
+        @Override
+        public List<Coord> decode(ByteBuffer in) {
+            List<Coord> value = new ArrayList<>();
+            for (int i = in.getInt(); i > 0; i--) {
+                value.add(new Coord(in.getDouble(), in.getDouble()));
+            }
+            return value;
+        }
+    }
+
     private static Map<String, CSVEntry> parseCsv(Path path) throws IOException {
         Map<String, CSVEntry> result = new HashMap<>();
         try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
@@ -153,4 +206,150 @@ public class DictionaryTest {
         assertEquals(match.coords.get(1).lat, -43.225);
         assertEquals(match.coords.get(1).lon, -22.925);
     }
+
+    @Test
+    void testPrefixKeys() {
+        assertEquals(this.dict.get(this.dict.membership("Arlington")).get(0).lon, 32.6998);
+        assertEquals(this.dict.get(this.dict.membership("Arlington Heights")).get(0).lon, 42.0956);
+        assertEquals(this.dict.membership("Arlington Height"), -1);
+        String text = "Arlington Heights";
+        Match match = new Match(this.dict, text);
+        this.dict.prefix(text, 0, match);
+        assertEquals(match.coords.size(), 2);
+        assertEquals(match.coords.get(0).lon, 32.6998);
+        assertEquals(match.coords.get(1).lon, 42.0956);
+    }
+
+    @Test
+    void testScan() {
+        String text = "Compare & reserve one-way or return flights from Osaka Rio de Janeiro from ￥117480 only to get the best flight deals and promotions for your KIX to GIG trip!";
+        Match match = new Match(this.dict, text);
+        this.dict.scan(text, match);
+        assertEquals(match.coords.size(), 2);
+        assertEquals(match.coords.get(0).lat, 135.4601);
+        assertEquals(match.coords.get(0).lon, 34.75);
+        assertEquals(match.coords.get(1).lat, -43.225);
+        assertEquals(match.coords.get(1).lon, -22.925);
+
+        List<String> found = new ArrayList<>();
+        String trip = "From Kyoto to New York";
+        this.dict.scan(trip, (begin, offset, id) -> found.add(trip.substring(begin, begin + offset)));
+        assertEquals(found, Arrays.asList("Kyoto", "New York", "York"));
+    }
+
+    @Test
+    void testScanAgainstSubstrings() {
+        Random random = new Random(1205L);
+        for (DoubleArrayBuilder.Allocator allocator : DoubleArrayBuilder.Allocator.values()) {
+            for (int round = 0; round < 500; round++) {
+                Set<String> keys = new LinkedHashSet<>();
+                for (int i = random.nextInt(16) + 1; i > 0; i--) {
+                    keys.add(randomString(random, random.nextInt(6) + 1));
+                }
+                List<Word> words = new ArrayList<>();
+                for (String key : keys) words.add(new Word(key));
+                DoubleArray doubleArray = DoubleArrayBuilder.build(words, false, id -> {}, allocator);
+                DoubleArraySearcher searcher = new DoubleArraySearcher(doubleArray);
+                AhoCorasickSearcher scanner = new AhoCorasickSearcher(doubleArray);
+                String text = randomString(random, random.nextInt(48));
+
+                List<int[]> expected = new ArrayList<>();
+                for (int begin = 0; begin < text.length(); begin++) {
+                    for (String key : keys) {
+                        if (text.startsWith(key, begin)) {
+                            expected.add(new int[] {begin, key.length(), searcher.membership(key)});
+                        }
+                    }
+                }
+                expected.sort(Comparator.<int[]>comparingInt(m -> m[0] + m[1]).thenComparingInt(m -> -m[1]));
+                List<int[]> actual = new ArrayList<>();
+                scanner.eachMatch(text, 0, (begin, offset, id) -> actual.add(new int[] {begin, offset, id}));
+
+                String message = allocator + " " + keys + " in \"" + text + "\"";
+                assertEquals(expected.size(), actual.size(), message);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(i), actual.get(i), message);
+                }
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append("abc".charAt(random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void testSerialization(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("worldcities.dict");
+        DictionarySerializer.write(this.dict, path, new CoordsCodec());
+        Dictionary<List<Coord>> loaded = DictionarySerializer.read(path, new CoordsCodec());
+        for (CSVEntry entry : CSV) {
+            int id = loaded.membership(entry.getKey());
+            assertEquals(id, this.dict.membership(entry.getKey()));
+            assertEquals(loaded.get(id).size(), entry.getValue().size());
+            assertEquals(loaded.get(id).get(0).lat, entry.getValue().get(0).lat);
+            assertEquals(loaded.get(id).get(0).lon, entry.getValue().get(0).lon);
+        }
+        assertEquals(loaded.membership("Mishima"), -1);
+
+        List<String> found = new ArrayList<>();
+        String trip = "From Kyoto to New York";
+        loaded.scan(trip, (begin, offset, id) -> found.add(trip.substring(begin, begin + offset)));
+        assertEquals(found, Arrays.asList("Kyoto", "New York", "York"));
+    }
+
+    @Test
+    void testFailedWrite(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("worldcities.dict");
+        assertThrows(IOException.class, () -> DictionarySerializer.write(this.dict, path, new CoordsCodec() {
+            @Override
+            public void encode(List<Coord> value, DataOutput out) throws IOException {
+                throw new IOException("disk full");
+            }
+        }));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0L, files.count());
+        }
+    }
+
+    @Test
+    void testAllocators() {
+        DoubleArraySearcher linkedList = new DoubleArraySearcher(
+                DoubleArrayBuilder.build(new ArrayList<>(CSV), false, id -> {}, DoubleArrayBuilder.Allocator.LINKED_LIST));
+        DoubleArraySearcher bitmap = new DoubleArraySearcher(
+                DoubleArrayBuilder.build(new ArrayList<>(CSV), false, id -> {}, DoubleArrayBuilder.Allocator.BITMAP));
+        for (CSVEntry entry : CSV) {
+            assertEquals(linkedList.membership(entry.getKey()), bitmap.membership(entry.getKey()));
+        }
+        assertEquals(bitmap.membership("Mishima"), -1);
+    }
+
+    @Test
+    void testParallelBuild() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+            DoubleArraySerializer.write(
+                    DoubleArrayBuilder.build(new ArrayList<>(CSV), false, id -> {}),
+                    new DataOutputStream(sequential));
+            ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+            DoubleArraySerializer.write(
+                    DoubleArrayBuilder.build(new ArrayList<>(CSV), false, id -> {}, pool),
+                    new DataOutputStream(parallel));
+            assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+
+            Dictionary<List<Coord>> dict = new Dictionary<List<Coord>>(CSV, false, pool);
+            for (CSVEntry entry : CSV) {
+                int id = dict.membership(entry.getKey());
+                assertEquals(id, this.dict.membership(entry.getKey()));
+                assertEquals(dict.get(id).get(0).lat, entry.getValue().get(0).lat);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 }